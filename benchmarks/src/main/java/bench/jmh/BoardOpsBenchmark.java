@@ -0,0 +1,83 @@
+package bench.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.ConstraintBoard;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The primitives every search node is built from, on the empty cells of a 17-clue board:
+ * the {@code isSafe} check the naive solver makes per digit, the candidate mask the other
+ * strategies read instead, and a place/remove pair. Scores are per empty cell.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardOpsBenchmark {
+
+    private static final int EMPTY_CELLS = 81 - 17;
+
+    private ConstraintBoard board;
+    private int[] empty;
+
+    @Setup
+    public void setup() {
+        board = Corpus.load("17clue")[0];
+        empty = new int[EMPTY_CELLS];
+        int n = 0;
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            if (board.get(cell) == 0) empty[n++] = cell;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPTY_CELLS)
+    public int isSafeAllDigits() {
+        int safe = 0;
+        for (int cell : empty) {
+            int row = cell / 9;
+            int col = cell % 9;
+            for (int num = 1; num <= 9; num++) {
+                if (board.isSafe(row, col, num)) safe++;
+            }
+        }
+        return safe;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPTY_CELLS)
+    public long candidates() {
+        long any = 0;
+        for (int cell : empty) {
+            any += Long.bitCount(board.candidates(cell));
+        }
+        return any;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPTY_CELLS)
+    public int placeRemove() {
+        int placed = 0;
+        for (int cell : empty) {
+            long candidates = board.candidates(cell);
+            if (candidates == 0) continue;
+            board.place(cell, Long.numberOfTrailingZeros(candidates) + 1);
+            board.remove(cell);
+            placed++;
+        }
+        return placed;
+    }
+}
@@ -0,0 +1,152 @@
+package bench.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with {@code -rf csv} and prints the change of every
+ * score, secondary metrics such as {@code gc.alloc.rate.norm} included. A change counts as a
+ * regression when it is worse than the threshold (5% by default) and larger than the two
+ * error margins combined; the exit status is 1 if there is any, so a script can fail on it.
+ *
+ * Run with: java -cp benchmarks/target/benchmarks.jar bench.jmh.CompareResults baseline.csv current.csv [threshold %]
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java -cp benchmarks.jar bench.jmh.CompareResults baseline.csv current.csv [threshold %]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(args[0]);
+        Map<String, Score> current = read(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.05;
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  %s%n", entry.getKey(), "-", now.value, "new", now.unit);
+                continue;
+            }
+            double difference = now.value - before.value;
+            double change = before.value != 0 ? difference / before.value : 0;
+            double error = finite(before.error) + finite(now.error);
+            boolean regressed = now.direction * change < -threshold
+                    && Math.abs(difference) > Math.max(error, now.minDifference);
+            if (regressed) regressions++;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), before.value, now.value,
+                    change * 100, now.unit, regressed ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) System.out.printf("%-70s %14s%n", key, "removed");
+        }
+        System.out.printf("%d regression(s) over %.0f%%%n", regressions, threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static double finite(double error) {
+        return Double.isFinite(error) ? error : 0;
+    }
+
+    private static final class Score {
+        final double value;
+        final double error;
+        final String unit;
+        final int direction; // 1 = higher is better, -1 = lower is better, 0 = informational only
+        final double minDifference;
+
+        Score(double value, double error, String unit, int direction, double minDifference) {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+            this.direction = direction;
+            this.minDifference = minDifference;
+        }
+    }
+
+    /** Scores keyed by benchmark name plus its parameters, in file order. */
+    private static Map<String, Score> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) throw new IOException(file + " is empty");
+        List<String> header = split(lines.get(0));
+        int benchmark = column(header, "Benchmark", file);
+        int mode = column(header, "Mode", file);
+        int score = column(header, "Score", file);
+        int error = column(header, "Score Error (99.9%)", file);
+        int unit = column(header, "Unit", file);
+
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isEmpty()) continue;
+            List<String> fields = split(line);
+            String name = fields.get(benchmark);
+            StringBuilder key = new StringBuilder(name);
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i);
+                if (column.startsWith("Param: ") && !fields.get(i).isEmpty()) {
+                    key.append(' ').append(column.substring(7)).append('=').append(fields.get(i));
+                }
+            }
+            // Throughput scores and counters go up when faster, times down. Of the GC profiler's
+            // metrics only bytes per operation is stable; collection counts and MB/s follow the
+            // iteration length and speed. Allocation changes under a byte per operation are noise.
+            String metric = name.indexOf(':') < 0 ? "" : name.substring(name.indexOf(':') + 1);
+            int direction = fields.get(mode).equals("thrpt") ? 1 : -1;
+            double minDifference = 0;
+            if (metric.equals("gc.alloc.rate.norm")) {
+                direction = -1;
+                minDifference = 1;
+            } else if (metric.startsWith("gc.")) {
+                direction = 0;
+            }
+            scores.put(key.toString(), new Score(parse(fields.get(score)), parse(fields.get(error)), fields.get(unit),
+                    direction, minDifference));
+        }
+        return scores;
+    }
+
+    private static int column(List<String> header, String name, String file) throws IOException {
+        int index = header.indexOf(name);
+        if (index < 0) throw new IOException(file + " has no \"" + name + "\" column; write results with -rf csv");
+        return index;
+    }
+
+    private static double parse(String number) {
+        // JMH writes numbers in the platform locale, which may use a decimal comma
+        return number.isEmpty() ? Double.NaN : Double.parseDouble(number.replace(',', '.'));
+    }
+
+    /** Splits one CSV line, honouring double quotes. */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (ch == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,47 @@
+package bench.jmh;
+
+import solver.ConstraintBoard;
+import solver.PuzzleFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The puzzle sets bundled under {@code corpus/}, one puzzle per line in {@link PuzzleFormat}:
+ * <ul>
+ *     <li>{@code easy}: 20 generated 36-clue puzzles, mostly solved by singles</li>
+ *     <li>{@code hard}: AI Escargot, Easter Monster and other puzzles rated hardest for human solvers</li>
+ *     <li>{@code 17clue}: 19 minimal puzzles with 17 givens, the worst case for row-major backtracking</li>
+ * </ul>
+ * Every puzzle has exactly one solution.
+ */
+final class Corpus {
+
+    private Corpus() {
+    }
+
+    static ConstraintBoard[] load(String name) {
+        InputStream in = Corpus.class.getResourceAsStream("/corpus/" + name + ".txt");
+        if (in == null) throw new IllegalArgumentException("No corpus named " + name);
+        List<ConstraintBoard> boards = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                ConstraintBoard board = PuzzleFormat.parse(line);
+                if (board == null) throw new IllegalStateException("Invalid puzzle in " + name + ": " + line);
+                boards.add(board);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return boards.toArray(new ConstraintBoard[0]);
+    }
+}
@@ -0,0 +1,59 @@
+package bench.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import solver.ConstraintBoard;
+import solver.Solver;
+import solver.Strategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full solves of every puzzle in a {@link Corpus}, one operation per corpus pass. Naive
+ * backtracking needs several seconds per pass over the 17-clue set, so iterations are long
+ * enough to hold at least one pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CorpusBenchmark {
+
+    @Param({"easy", "hard", "17clue"})
+    public String corpus;
+
+    @Param({"naive", "mrv", "propagation", "dlx"})
+    public String strategy;
+
+    private Solver solver;
+    private ConstraintBoard[] givens;
+    private ConstraintBoard board;
+
+    @Setup
+    public void setup() {
+        solver = Strategy.fromId(strategy).create();
+        givens = Corpus.load(corpus);
+        board = new ConstraintBoard(givens[0].box());
+    }
+
+    @Benchmark
+    public void solveAll(Blackhole blackhole) {
+        for (ConstraintBoard puzzle : givens) {
+            board.copyFrom(puzzle);
+            if (!solver.solve(board)) throw new IllegalStateException("Corpus puzzle not solved");
+            blackhole.consume(board.get(0));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package bench.jmh;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.ConstraintBoard;
+import solver.Solver;
+import solver.Strategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one search node for each strategy. Each operation solves the same hard puzzle
+ * from its givens; the {@code nodes} counter reports search nodes per second next to the
+ * solves per second, so the time per node is {@code 1 / nodes} whatever the strategy's
+ * node count on this puzzle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NodeCostBenchmark {
+
+    @Param({"naive", "mrv", "propagation", "dlx"})
+    public String strategy;
+
+    private Solver solver;
+    private ConstraintBoard givens;
+    private ConstraintBoard board;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        solver = Strategy.fromId(strategy).create();
+        givens = Corpus.load("hard")[0];
+        board = new ConstraintBoard(givens.box());
+    }
+
+    @Benchmark
+    public boolean solve(Nodes counter) {
+        board.copyFrom(givens);
+        boolean solved = solver.solve(board);
+        counter.nodes += solver.nodes();
+        return solved;
+    }
+}
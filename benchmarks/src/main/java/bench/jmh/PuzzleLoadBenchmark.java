@@ -0,0 +1,121 @@
+package bench.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.ConstraintBoard;
+import solver.PackedFormat;
+import solver.PuzzleFormat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Getting a puzzle into a board from a text line and from a packed record in a direct buffer
+ * (the way a mapped corpus is read), and copying and comparing boards against packed records.
+ * Cycles through the bundled 9x9 corpora; scores are per puzzle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PuzzleLoadBenchmark {
+
+    private static final int PUZZLES = 1000;
+    private static final int CELLS = 81;
+    private static final int RECORD = PackedFormat.recordBytes(3);
+
+    private byte[] text;
+    private ByteBuffer packed;
+    private byte[] packedCopy;
+    private ConstraintBoard[] boards;
+    private ConstraintBoard board;
+
+    @Setup
+    public void setup() {
+        ConstraintBoard[] all = concat(Corpus.load("easy"), Corpus.load("hard"), Corpus.load("17clue"));
+        text = new byte[PUZZLES * CELLS];
+        byte[] records = new byte[PUZZLES * RECORD];
+        boards = new ConstraintBoard[PUZZLES];
+        for (int i = 0; i < PUZZLES; i++) {
+            boards[i] = all[i % all.length];
+            PuzzleFormat.format(boards[i], text, i * CELLS);
+            PackedFormat.pack(boards[i], records, i * RECORD);
+        }
+        packed = ByteBuffer.allocateDirect(records.length);
+        packed.put(records);
+        packedCopy = records.clone();
+        board = new ConstraintBoard(3);
+    }
+
+    private static ConstraintBoard[] concat(ConstraintBoard[]... sets) {
+        ConstraintBoard[] all = new ConstraintBoard[0];
+        for (ConstraintBoard[] set : sets) {
+            int from = all.length;
+            all = Arrays.copyOf(all, from + set.length);
+            System.arraycopy(set, 0, all, from, set.length);
+        }
+        return all;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public int parseText() {
+        int filled = 0;
+        for (int i = 0; i < PUZZLES; i++) {
+            PuzzleFormat.parse(text, i * CELLS, board);
+            filled += board.filledCount();
+        }
+        return filled;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public int unpackPacked() {
+        int filled = 0;
+        for (int i = 0; i < PUZZLES; i++) {
+            PackedFormat.unpack(packed, i * RECORD, board);
+            filled += board.filledCount();
+        }
+        return filled;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public int copyBoard() {
+        int filled = 0;
+        for (int i = 0; i < PUZZLES; i++) {
+            board.copyFrom(boards[i]);
+            filled += board.filledCount();
+        }
+        return filled;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public byte[] copyPacked() {
+        packed.get(0, packedCopy, 0, packedCopy.length);
+        return packedCopy;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public int comparePacked() {
+        int same = 0;
+        for (int i = 1; i < PUZZLES; i++) {
+            if (Arrays.equals(packedCopy, (i - 1) * RECORD, i * RECORD, packedCopy, i * RECORD, (i + 1) * RECORD)) same++;
+        }
+        return same;
+    }
+}
@@ -0,0 +1,145 @@
+package bench.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.ConstraintBoard;
+import solver.Strategy;
+import visualizer.BoardView;
+import visualizer.CellUpdateBuffer;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless painting of {@link BoardView} into a {@link BufferedImage}: a full repaint, the
+ * single-cell repaint a solver step triggers, and one animation frame as the window runs it
+ * during a solve (a burst of solver events through the {@link CellUpdateBuffer}, drained
+ * into the view, then a repaint of the changed area).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    /** Solver events per frame: about 60,000 steps per second at 60 frames per second. */
+    private static final int EVENTS_PER_FRAME = 1000;
+
+    @Param({"3", "4", "5"})
+    public int box;
+
+    private BoardView view;
+    private BufferedImage image;
+    private Graphics2D g;
+    private CellUpdateBuffer updates;
+    private int[] events;
+    private int nextEvent;
+    private int nextCell;
+    private final Rectangle cellBounds = new Rectangle();
+    private final Rectangle frameClip = new Rectangle();
+
+    private final CellUpdateBuffer.Consumer applyUpdate = new CellUpdateBuffer.Consumer() {
+        @Override
+        public void cellChanged(int cell, int update) {
+            if ((update & CellUpdateBuffer.BACKTRACKED) != 0) {
+                view.setValue(cell, 0);
+                view.setStyle(cell, BoardView.BACKTRACKED);
+            } else {
+                view.setValue(cell, update & CellUpdateBuffer.VALUE_MASK);
+                view.setStyle(cell, BoardView.TRIED);
+            }
+            union(cell);
+        }
+    };
+
+    @Setup
+    public void setup() {
+        ConstraintBoard solution = new ConstraintBoard(box);
+        Strategy.PROPAGATION.create().solve(solution);
+
+        int size = box * box;
+        int cellSize = Math.min(60, 640 / size);
+        view = new BoardView(box, cellSize, cellSize / 2);
+        view.setSize(view.getPreferredSize());
+        for (int cell = 0; cell < solution.cellCount(); cell++) {
+            view.setValue(cell, solution.get(cell));
+            view.setGiven(cell, cell % 3 == 0);
+        }
+        image = new BufferedImage(view.getWidth(), view.getHeight(), BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+
+        updates = new CellUpdateBuffer(solution.cellCount());
+        // Fixed pseudo-random steps, one in three a backtrack, spread over the whole board
+        Random random = new Random(42);
+        events = new int[EVENTS_PER_FRAME * 16];
+        for (int i = 0; i < events.length; i++) {
+            int cell = random.nextInt(solution.cellCount());
+            events[i] = random.nextInt(3) == 0 ? -1 - cell : cell << 8 | (1 + random.nextInt(size));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage fullPaint() {
+        g.setClip(0, 0, view.getWidth(), view.getHeight());
+        view.paint(g);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage cellPaint() {
+        int cell = nextCell;
+        nextCell = (cell + 1) % view.cellCount();
+        view.setValue(cell, view.getValue(cell) % view.gridSize() + 1);
+        frameClip.setSize(-1, -1);
+        union(cell);
+        g.setClip(frameClip);
+        view.paint(g);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage solverFrame() {
+        for (int i = 0; i < EVENTS_PER_FRAME; i++) {
+            int event = events[nextEvent];
+            nextEvent = (nextEvent + 1) % events.length;
+            if (event < 0) {
+                updates.backtracked(-1 - event);
+            } else {
+                updates.placed(event >>> 8, event & 0xFF);
+            }
+        }
+        frameClip.setSize(-1, -1);
+        updates.drain(applyUpdate);
+        g.setClip(frameClip);
+        view.paint(g);
+        return image;
+    }
+
+    /** Grows {@code frameClip} by the cell's area, including the box line around it, as {@code BoardView} repaints it. */
+    private void union(int cell) {
+        int size = view.gridSize();
+        int cellSize = view.getWidth() / size;
+        cellBounds.setBounds((cell % size) * cellSize - 1, (cell / size) * cellSize - 1, cellSize + 3, cellSize + 3);
+        frameClip.add(cellBounds);
+    }
+}
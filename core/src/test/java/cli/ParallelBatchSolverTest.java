@@ -0,0 +1,115 @@
+package cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import solver.ConstraintBoard;
+import solver.SolveListener;
+import solver.Solver;
+import solver.SolverMetrics;
+import solver.Strategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Timeout(value = 30, unit = TimeUnit.SECONDS)
+class ParallelBatchSolverTest {
+
+    private static final String PUZZLE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    private static final String SOLUTION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+    private static final int PUZZLES = 5000; // Many more chunks than the free list holds
+
+    @Test
+    void solvesEveryPuzzleInInputOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HeadlessSolver.Totals totals = new ParallelBatchSolver(4, true, Strategy.PROPAGATION)
+                .run(reader(PUZZLES), out);
+        assertEquals(PUZZLES, totals.puzzles);
+        assertEquals((SOLUTION + "\n").repeat(PUZZLES), out.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void runtimeExceptionWhileWritingFailsTheRunInsteadOfHanging() {
+        AtomicInteger writes = new AtomicInteger();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw new IllegalStateException("not expected");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (writes.incrementAndGet() > 700) throw new IllegalStateException("broken sink");
+            }
+        };
+        for (boolean inputOrder : new boolean[] {true, false}) {
+            writes.set(0);
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> new ParallelBatchSolver(4, inputOrder, Strategy.PROPAGATION).run(reader(PUZZLES), out));
+            assertEquals("broken sink", e.getMessage());
+        }
+    }
+
+    @Test
+    void ioExceptionWhileWritingIsRethrown() {
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        IOException e = assertThrows(IOException.class,
+                () -> new ParallelBatchSolver(2, true, Strategy.PROPAGATION).run(reader(PUZZLES), out));
+        assertEquals("disk full", e.getMessage());
+    }
+
+    @Test
+    void exceptionWhileSolvingFailsTheRun() {
+        AtomicInteger solves = new AtomicInteger();
+        ParallelBatchSolver batch = new ParallelBatchSolver(4, true, () -> new Solver() {
+            @Override
+            public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+                if (solves.incrementAndGet() == 1234) throw new IllegalArgumentException("solver bug");
+                return false;
+            }
+
+            @Override
+            public long nodes() {
+                return 0;
+            }
+
+            @Override
+            public long backtracks() {
+                return 0;
+            }
+
+            @Override
+            public int maxDepth() {
+                return 0;
+            }
+
+            @Override
+            public boolean wasCancelled() {
+                return false;
+            }
+        }, new SolverMetrics());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> batch.run(reader(PUZZLES), new ByteArrayOutputStream()));
+        assertEquals("solver bug", e.getMessage());
+    }
+
+    private static PuzzleReader reader(int puzzles) {
+        byte[] input = (PUZZLE + "\n").repeat(puzzles).getBytes(StandardCharsets.US_ASCII);
+        return new PuzzleReader(new ByteArrayInputStream(input));
+    }
+}
@@ -0,0 +1,84 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import solver.Strategy;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveServerTest {
+
+    private static final String PUZZLE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+
+    private Locale defaultLocale;
+    private SolveServer server;
+
+    @BeforeEach
+    void setUp() {
+        defaultLocale = Locale.getDefault();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Locale.setDefault(defaultLocale);
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void numbersUseADecimalPointUnderACommaLocale() throws Exception {
+        Locale.setDefault(Locale.GERMANY);
+        server = new SolveServer(1, 1000, 10_000, Strategy.PROPAGATION, null);
+        InetSocketAddress address = server.start(0);
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + address.getPort() + "/solve"))
+                        .POST(HttpRequest.BodyPublishers.ofString(PUZZLE + "\n")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        String body = response.body();
+        assertTrue(body.contains("\"status\":\"solved\""), body);
+        assertNumber(body, "elapsed_ms");
+        assertNumber(body, "us");
+    }
+
+    @Test
+    void oversizedBatchIsRejectedWithoutSolving() throws Exception {
+        server = new SolveServer(1, 1000, 10_000, Strategy.PROPAGATION, null);
+        InetSocketAddress address = server.start(0);
+        String body = (PUZZLE + "\n").repeat(10_001);
+
+        HttpResponse<String> response = post(address, body);
+
+        assertEquals(413, response.statusCode());
+        assertTrue(response.body().contains("more than 10000 puzzles"), response.body());
+        assertEquals(0, server.metrics().getPuzzles());
+        assertEquals(200, post(address, (PUZZLE + "\n").repeat(3)).statusCode()); // The permit was never taken
+        assertEquals(3, server.metrics().getPuzzles());
+    }
+
+    private static HttpResponse<String> post(InetSocketAddress address, String body) throws Exception {
+        return HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + address.getPort() + "/solve"))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void assertNumber(String json, String key) {
+        Matcher matcher = Pattern.compile("\"" + key + "\":(.*?)(?=,\"|[}\\]])").matcher(json);
+        assertTrue(matcher.find(), json);
+        assertTrue(matcher.group(1).matches("\\d+(\\.\\d+)?"), key + " is not a JSON number in " + json);
+    }
+}
@@ -0,0 +1,112 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingSolverTest {
+
+    private static final String PUZZLE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+
+    @Test
+    void answersASymmetricVariantFromTheCache() {
+        CachingSolver solver = new CachingSolver(Strategy.PROPAGATION.create(), new SolutionCache(16));
+        ConstraintBoard original = PuzzleFormat.parse(PUZZLE);
+        assertTrue(solver.solve(original));
+        assertFalse(solver.wasHit());
+
+        // Transposed, with the first two bands swapped and every digit d relabelled to 10 - d
+        ConstraintBoard puzzle = PuzzleFormat.parse(PUZZLE);
+        ConstraintBoard variant = new ConstraintBoard(3);
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int num = puzzle.get(row, col);
+                int band = row / 3 == 0 ? 1 : row / 3 == 1 ? 0 : 2;
+                if (num != 0) variant.place(col, band * 3 + row % 3, 10 - num);
+            }
+        }
+        assertTrue(solver.solve(variant));
+        assertTrue(solver.wasHit());
+        assertEquals(0, solver.nodes());
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int band = row / 3 == 0 ? 1 : row / 3 == 1 ? 0 : 2;
+                assertEquals(10 - original.get(row, col), variant.get(col, band * 3 + row % 3));
+            }
+        }
+    }
+
+    @Test
+    void skipsTheCacheWhenKeysCostMoreThanSolves() {
+        SolutionCache cache = new SolutionCache(1024);
+        CachingSolver solver = new CachingSolver(new TimedSolver(0), cache);
+        solveGenerated(solver, CachingSolver.SAMPLE_MISSES + 10);
+        assertTrue(solver.isBypassed(3));
+        assertEquals(CachingSolver.SAMPLE_MISSES, cache.misses());
+        assertEquals(10, cache.bypasses());
+        assertTrue(cache.summary().contains("10 solved without lookup"), cache.summary());
+    }
+
+    @Test
+    void keepsTheCacheWhenSolvesCostMoreThanKeys() {
+        SolutionCache cache = new SolutionCache(1024);
+        CachingSolver solver = new CachingSolver(new TimedSolver(2_000_000), cache);
+        solveGenerated(solver, CachingSolver.SAMPLE_MISSES + 10);
+        assertFalse(solver.isBypassed(3));
+        assertEquals(0, cache.bypasses());
+        assertEquals(CachingSolver.SAMPLE_MISSES + 10, cache.misses());
+    }
+
+    private static void solveGenerated(Solver solver, int count) {
+        PuzzleGenerator generator = new PuzzleGenerator(3, new SplittableRandom(7));
+        ConstraintBoard puzzle = new ConstraintBoard(3);
+        for (int i = 0; i < count; i++) {
+            generator.generate(puzzle);
+            solver.solve(puzzle);
+        }
+    }
+
+    /** Reports every puzzle unsolvable after spinning for a fixed time. */
+    private static final class TimedSolver implements Solver {
+        private final long nanos;
+
+        TimedSolver(long nanos) {
+            this.nanos = nanos;
+        }
+
+        @Override
+        public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+            long end = System.nanoTime() + nanos;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            return false;
+        }
+
+        @Override
+        public long nodes() {
+            return 0;
+        }
+
+        @Override
+        public long backtracks() {
+            return 0;
+        }
+
+        @Override
+        public int maxDepth() {
+            return 0;
+        }
+
+        @Override
+        public boolean wasCancelled() {
+            return false;
+        }
+    }
+}
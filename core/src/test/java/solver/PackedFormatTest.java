@@ -0,0 +1,137 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedFormatTest {
+
+    private static final int PUZZLES = 5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void cellWidthsAndRecordSizes() {
+        int[] bits = {0, 0, 3, 4, 5, 5, 6, 6, 7};
+        for (int box = ConstraintBoard.MIN_BOX; box <= ConstraintBoard.MAX_BOX; box++) {
+            assertEquals(bits[box], PackedFormat.bitsPerCell(box), "box " + box);
+        }
+        assertEquals(6, PackedFormat.recordBytes(2));
+        assertEquals(41, PackedFormat.recordBytes(3));
+        assertEquals(160, PackedFormat.recordBytes(4));
+    }
+
+    @Test
+    void textPackCorpusAndBackForEveryBoxSize() throws IOException {
+        boolean byteTail = false;
+        for (int box = ConstraintBoard.MIN_BOX; box <= ConstraintBoard.MAX_BOX; box++) {
+            int recordBytes = PackedFormat.recordBytes(box);
+            // The last cell is always given, so its bits land in the last byte of the record
+            byteTail |= recordBytes % Integer.BYTES != 0;
+            String[] lines = new String[PUZZLES];
+            for (int i = 0; i < PUZZLES; i++) {
+                lines[i] = puzzle(box, new SplittableRandom(box * 100 + i), i == 0 ? 1.0 : 0.4);
+            }
+
+            Path path = dir.resolve("box" + box + ".sdkp");
+            try (CorpusWriter writer = new CorpusWriter(path, box)) {
+                for (int i = 0; i < PUZZLES; i++) {
+                    byte[] text = lines[i].getBytes(StandardCharsets.US_ASCII);
+                    ConstraintBoard board = PuzzleFormat.parse(lines[i]);
+                    byte[] fromText = new byte[recordBytes];
+                    byte[] fromBoard = new byte[recordBytes];
+                    assertTrue(PackedFormat.pack(text, 0, box, fromText, 0));
+                    PackedFormat.pack(board, fromBoard, 0);
+                    assertArrayEquals(fromText, fromBoard, "box " + box + " puzzle " + i);
+                    if (i % 2 == 0) {
+                        assertTrue(writer.add(text, 0));
+                    } else {
+                        writer.add(board);
+                    }
+                }
+            }
+
+            assertTrue(PuzzleCorpus.isCorpus(path));
+            try (PuzzleCorpus corpus = new PuzzleCorpus(path)) {
+                assertEquals(box, corpus.box());
+                assertEquals(PUZZLES, corpus.size());
+                ConstraintBoard board = new ConstraintBoard(box);
+                byte[] out = new byte[corpus.cellCount()];
+                for (int i = 0; i < PUZZLES; i++) {
+                    assertTrue(corpus.load(i, board), "box " + box + " puzzle " + i);
+                    assertEquals(lines[i], PuzzleFormat.format(board));
+                    corpus.format(i, out, 0);
+                    assertEquals(lines[i], new String(out, StandardCharsets.US_ASCII));
+                }
+            }
+        }
+        assertTrue(byteTail);
+    }
+
+    @Test
+    void unpacksInEitherByteOrderAtAnyOffset() {
+        for (int box = ConstraintBoard.MIN_BOX; box <= ConstraintBoard.MAX_BOX; box++) {
+            String line = puzzle(box, new SplittableRandom(box), 0.5);
+            int recordBytes = PackedFormat.recordBytes(box);
+            for (int offset = 0; offset < Integer.BYTES; offset++) {
+                byte[] bytes = new byte[offset + recordBytes + 3];
+                PackedFormat.pack(PuzzleFormat.parse(line), bytes, offset);
+                for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes).order(order);
+                    ConstraintBoard board = new ConstraintBoard(box);
+                    assertTrue(PackedFormat.unpack(buffer, offset, board));
+                    assertEquals(line, PuzzleFormat.format(board), "box " + box + " " + order + " at " + offset);
+                    byte[] text = new byte[box * box * box * box];
+                    PackedFormat.format(buffer, offset, box, text, 0);
+                    assertEquals(line, new String(text, StandardCharsets.US_ASCII));
+                }
+            }
+        }
+    }
+
+    @Test
+    void unpackRejectsConflictsAndOversizedDigits() {
+        byte[] record = new byte[PackedFormat.recordBytes(3)];
+        // Two 5s in the first row
+        assertTrue(PackedFormat.pack("55".concat(".".repeat(79)).getBytes(StandardCharsets.US_ASCII), 0, 3, record, 0));
+        assertFalse(PackedFormat.unpack(ByteBuffer.wrap(record), 0, new ConstraintBoard(3)));
+
+        // A 3-bit cell of a 4x4 board can hold 5 to 7, which are not digits there
+        byte[] small = new byte[PackedFormat.recordBytes(2)];
+        small[0] = 7;
+        assertFalse(PackedFormat.unpack(ByteBuffer.wrap(small), 0, new ConstraintBoard(2)));
+        byte[] text = new byte[16];
+        PackedFormat.format(ByteBuffer.wrap(small), 0, 2, text, 0);
+        assertEquals('?', text[0]);
+
+        assertFalse(PackedFormat.pack("5".repeat(16).getBytes(StandardCharsets.US_ASCII), 0, 2, small, 0));
+    }
+
+    // A puzzle line cut from a valid solution grid, keeping each cell with probability keep; the
+    // last cell and one cell holding the largest digit are always kept
+    private static String puzzle(int box, SplittableRandom random, double keep) {
+        int size = box * box;
+        StringBuilder line = new StringBuilder();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int num = (box * (row % box) + row / box + col) % size + 1;
+                boolean last = row == size - 1 && col == size - 1;
+                boolean kept = last || (row == 0 && num == size) || random.nextDouble() < keep;
+                line.append(kept ? PuzzleFormat.symbol(num) : '.');
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package solver;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelSearchTest {
+
+    private static final String PUZZLE =
+            "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..";
+    private static final String SOLUTION =
+            "162857493534129678789643521475312986913586742628794135356478219241935867897261354";
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void solvesAcrossThreads() {
+        ConstraintBoard board = PuzzleFormat.parse(PUZZLE);
+        assertTrue(new ParallelSearch(pool, 2, Strategy.MRV).solve(board));
+        assertEquals(SOLUTION, PuzzleFormat.format(board));
+    }
+
+    @Test
+    void reportsStepsSequentiallyWhenGivenAListener() {
+        ConstraintBoard board = PuzzleFormat.parse(PUZZLE);
+        Solver solver = new ParallelSearch(pool, 2, Strategy.MRV);
+        long[] steps = new long[2];
+        Thread caller = Thread.currentThread();
+        boolean solved = solver.solve(board, new SolveListener() {
+            @Override
+            public boolean placed(int cell, int num) {
+                assertEquals(caller, Thread.currentThread());
+                steps[0]++;
+                return true;
+            }
+
+            @Override
+            public boolean removed(int cell, int num) {
+                steps[1]++;
+                return true;
+            }
+        }, Solver.NEVER);
+
+        assertTrue(solved);
+        assertEquals(SOLUTION, PuzzleFormat.format(board));
+        assertTrue(steps[0] > 0);
+        assertEquals(solver.backtracks(), steps[1]);
+        assertTrue(solver.nodes() > 0);
+        assertFalse(solver.wasCancelled());
+    }
+}
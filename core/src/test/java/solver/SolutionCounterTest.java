@@ -0,0 +1,112 @@
+package solver;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionCounterTest {
+
+    private static final String UNIQUE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    private static final String SOLUTION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+    // Cell (0, 8) can only take a 9, and column 8 already has one
+    private static final String NONE =
+            "12345678.........9...............................................................";
+    // An empty 4x4 board has 288 solutions
+    private static final String EMPTY_4X4 = "................";
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void tellsNoneUniqueAndMultipleApart() {
+        SolutionCounter counter = new SolutionCounter();
+        assertEquals(0, counter.count(PuzzleFormat.parse(NONE), 2));
+        assertEquals(1, counter.count(PuzzleFormat.parse(UNIQUE), 2));
+        assertEquals(2, counter.count(PuzzleFormat.parse(removeGivens(UNIQUE, 12)), 2));
+        assertEquals("none", SolutionCounter.verdict(0));
+        assertEquals("unique", SolutionCounter.verdict(1));
+        assertEquals("multiple", SolutionCounter.verdict(2));
+    }
+
+    @Test
+    void leavesTheBoardAndReportsTheFirstSolution() {
+        ConstraintBoard board = PuzzleFormat.parse(UNIQUE);
+        ConstraintBoard first = new ConstraintBoard(3);
+        assertEquals(1, new SolutionCounter().count(board, 2, first, Solver.NEVER));
+        assertEquals(UNIQUE, PuzzleFormat.format(board));
+        assertEquals(SOLUTION, PuzzleFormat.format(first));
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        SolutionCounter counter = new SolutionCounter();
+        assertEquals(288, counter.count(PuzzleFormat.parse(EMPTY_4X4), 1000));
+        assertEquals(100, counter.count(PuzzleFormat.parse(EMPTY_4X4), 100));
+        assertEquals(1, counter.count(PuzzleFormat.parse(EMPTY_4X4), 1));
+        assertEquals(0, counter.count(PuzzleFormat.parse(EMPTY_4X4), 0));
+        assertFalse(counter.wasCancelled());
+    }
+
+    @Test
+    void propagatingSolverCountsTheSame() {
+        PropagatingSolver solver = new PropagatingSolver();
+        ConstraintBoard board = PuzzleFormat.parse(EMPTY_4X4);
+        assertEquals(288, solver.countSolutions(board, 1000, Solver.NEVER, null));
+        assertEquals(EMPTY_4X4, PuzzleFormat.format(board));
+        assertEquals(1, solver.countSolutions(board, 1000, Solver.NEVER, solved -> false)); // Stopped by onSolution
+        assertEquals(0, solver.countSolutions(PuzzleFormat.parse(NONE), 2, Solver.NEVER, null));
+    }
+
+    @Test
+    void parallelSplitAgreesWithTheSequentialCount() {
+        SolutionCounter sequential = new SolutionCounter();
+        for (int depth = 1; depth <= 3; depth++) {
+            SolutionCounter parallel = new SolutionCounter(pool, depth);
+            assertEquals(288, parallel.count(PuzzleFormat.parse(EMPTY_4X4), 1000));
+            assertEquals(100, parallel.count(PuzzleFormat.parse(EMPTY_4X4), 100));
+            for (String puzzle : new String[] {NONE, UNIQUE, removeGivens(UNIQUE, 12), removeGivens(UNIQUE, 20)}) {
+                for (long limit : new long[] {1, 2, 50}) {
+                    assertEquals(sequential.count(PuzzleFormat.parse(puzzle), limit),
+                            parallel.count(PuzzleFormat.parse(puzzle), limit), puzzle + " limit " + limit);
+                }
+            }
+        }
+    }
+
+    @Test
+    void cancelledCountReportsCancellation() {
+        SolutionCounter counter = new SolutionCounter(pool, 2);
+        long found = counter.count(PuzzleFormat.parse(EMPTY_4X4), 1000, null, () -> true);
+        assertTrue(found < 288);
+        assertTrue(counter.wasCancelled());
+    }
+
+    // The puzzle with its first n givens taken out
+    private static String removeGivens(String puzzle, int n) {
+        char[] cells = puzzle.toCharArray();
+        for (int i = 0; i < cells.length && n > 0; i++) {
+            if (cells[i] != '.') {
+                cells[i] = '.';
+                n--;
+            }
+        }
+        return new String(cells);
+    }
+}
@@ -0,0 +1,109 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceTest {
+
+    private static final String PUZZLE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    private static final int INTERVAL = TraceReader.CHECKPOINT_INTERVAL;
+    // Past the 1 MiB first region and the 2 MiB second one, ending part way into the third
+    private static final int EVENTS = 800_000 + 123;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void seeksMatchAnEventByEventReplay() throws IOException {
+        ConstraintBoard givens = PuzzleFormat.parse(PUZZLE);
+        Path path = dir.resolve("long.trace");
+
+        // Expected boards after position p for every p that is a checkpoint boundary, one
+        // either side of it, or the end
+        List<Long> positions = new ArrayList<>();
+        List<int[]> expected = new ArrayList<>();
+        int[] board = new int[givens.cellCount()];
+        for (int cell = 0; cell < board.length; cell++) {
+            board[cell] = givens.get(cell);
+        }
+        int[] events = new int[EVENTS];
+        SplittableRandom random = new SplittableRandom(9);
+        try (TraceWriter writer = new TraceWriter(path, givens)) {
+            for (int i = 0; i <= EVENTS; i++) {
+                long mod = i % INTERVAL;
+                if (mod == 0 || mod == 1 || mod == INTERVAL - 1 || i == EVENTS || i == EVENTS - 1) {
+                    positions.add((long) i);
+                    expected.add(board.clone());
+                }
+                if (i == EVENTS) break;
+                int cell = random.nextInt(board.length);
+                if (board[cell] == 0) {
+                    int num = 1 + random.nextInt(9);
+                    writer.placed(cell, num);
+                    events[i] = TraceFormat.encode(cell, num, false);
+                    board[cell] = num;
+                } else {
+                    writer.removed(cell, board[cell]);
+                    events[i] = TraceFormat.encode(cell, board[cell], true);
+                    board[cell] = 0;
+                }
+            }
+            assertEquals(EVENTS, writer.eventCount());
+        }
+        long bytes = TraceFormat.eventsOffset(givens.cellCount()) + (long) EVENTS * TraceFormat.EVENT_BYTES;
+        assertTrue(bytes > 3L << 20);
+        assertTrue(Files.size(path) >= bytes);
+
+        try (TraceReader reader = new TraceReader(path)) {
+            assertEquals(EVENTS, reader.eventCount());
+            assertEquals(3, reader.box());
+            assertEquals(81, reader.cellCount());
+            for (int cell = 0; cell < 81; cell++) {
+                assertEquals(givens.get(cell), reader.given(cell));
+            }
+            for (int i = 0; i < EVENTS; i++) {
+                if (reader.event(i) != events[i]) assertEquals(events[i], reader.event(i), "event " + i);
+            }
+            int[] values = new int[81];
+            for (int k = 0; k < positions.size(); k++) {
+                reader.boardAt(positions.get(k), values);
+                assertArrayEquals(expected.get(k), values, "position " + positions.get(k));
+            }
+            // Out-of-range positions clamp to the givens and to the last event
+            reader.boardAt(-5, values);
+            assertArrayEquals(expected.get(0), values);
+            reader.boardAt(EVENTS + 10L, values);
+            assertArrayEquals(board, values);
+        }
+    }
+
+    @Test
+    void recordsARealSolve() throws IOException {
+        ConstraintBoard board = PuzzleFormat.parse(PUZZLE);
+        Path path = dir.resolve("solve.trace");
+        BacktrackingSolver solver = new BacktrackingSolver();
+        try (TraceWriter writer = new TraceWriter(path, board)) {
+            assertTrue(solver.solve(board, writer, Solver.NEVER));
+        }
+        try (TraceReader reader = new TraceReader(path)) {
+            assertTrue(reader.eventCount() > 0);
+            int[] values = new int[81];
+            reader.boardAt(reader.eventCount(), values);
+            for (int cell = 0; cell < 81; cell++) {
+                assertEquals(board.get(cell), values[cell]);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package visualizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseEvent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BoardViewTest {
+
+    private static final int CELL = 60;
+
+    @Test
+    void mapsPointsToCells() {
+        BoardView view = new BoardView(3, CELL, 24);
+        assertEquals(0, view.cellAt(0, 0));
+        assertEquals(11, view.cellAt(150, 90)); // Row 1, column 2
+        assertEquals(80, view.cellAt(9 * CELL - 1, 9 * CELL - 1));
+        assertEquals(-1, view.cellAt(9 * CELL, 0));
+        assertEquals(-1, view.cellAt(0, 9 * CELL));
+        assertEquals(-1, view.cellAt(-1, 5));
+    }
+
+    @Test
+    void clickSelectsTheCellUnderThePointer() {
+        BoardView view = new BoardView(3, CELL, 24);
+        click(view, 150, 90);
+        assertEquals(11, view.selectedCell());
+        click(view, 8 * CELL + 5, 8 * CELL + 5);
+        assertEquals(80, view.selectedCell());
+    }
+
+    @Test
+    void clickMapsCellsOnLargerBoards() {
+        BoardView view = new BoardView(4, 30, 12);
+        click(view, 15 * 30 + 1, 2 * 30 + 1);
+        assertEquals(2 * 16 + 15, view.selectedCell());
+    }
+
+    @Test
+    void firstDigitWithNothingSelectedFillsTheTopLeftCell() {
+        BoardView view = new BoardView(3, CELL, 24);
+        int[] edits = new int[3];
+        view.setEditListener((cell, oldValue, newValue) -> {
+            edits[0] = cell;
+            edits[1] = oldValue;
+            edits[2] = newValue;
+        });
+        press(view, KeyEvent.VK_5, '5');
+        assertEquals(0, view.selectedCell());
+        assertEquals(5, view.getValue(0));
+        assertArrayEquals(new int[] {0, 0, 5}, edits);
+    }
+
+    @Test
+    void firstArrowWithNothingSelectedMovesFromTheTopLeftCell() {
+        BoardView view = new BoardView(3, CELL, 24);
+        press(view, KeyEvent.VK_RIGHT, KeyEvent.CHAR_UNDEFINED);
+        assertEquals(1, view.selectedCell());
+    }
+
+    @Test
+    void typingAfterAClickEditsTheClickedCell() {
+        BoardView view = new BoardView(3, CELL, 24);
+        click(view, 150, 90);
+        press(view, KeyEvent.VK_7, '7');
+        assertEquals(7, view.getValue(11));
+        press(view, KeyEvent.VK_BACK_SPACE, '\b');
+        assertEquals(0, view.getValue(11));
+    }
+
+    static void press(BoardView view, int keyCode, char keyChar) {
+        KeyEvent e = new KeyEvent(view, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0, keyCode, keyChar);
+        // Straight to the listeners: a headless view never owns the keyboard focus
+        for (KeyListener listener : view.getKeyListeners()) {
+            listener.keyPressed(e);
+        }
+    }
+
+    static void click(BoardView view, int x, int y) {
+        view.dispatchEvent(new MouseEvent(view, MouseEvent.MOUSE_PRESSED, System.currentTimeMillis(),
+                0, x, y, 1, false, MouseEvent.BUTTON1));
+    }
+}
@@ -0,0 +1,264 @@
+package visualizer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 20, unit = TimeUnit.SECONDS)
+class StepControlTest {
+
+    private static final int CELLS = 81;
+
+    /** A solving thread that steps through the gate until it is told to stop. */
+    private static final class Worker extends Thread {
+        final StepControl control;
+        final AtomicLong steps = new AtomicLong();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        volatile boolean result = true;
+
+        Worker(StepControl control) {
+            this.control = control;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!stopped.get()) {
+                if (!control.awaitStep(0, false)) {
+                    result = false;
+                    return;
+                }
+                steps.incrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    void stepGrantedBeforeTheWorkerParksIsNotLost() {
+        for (int round = 0; round < 500; round++) {
+            CountDownLatch aboutToWait = new CountDownLatch(1);
+            // The grant lands in beforeWait, after the worker has seen no permits but before it parks
+            StepControl[] holder = new StepControl[1];
+            StepControl control = new StepControl(CELLS, true, () -> {
+                if (aboutToWait.getCount() > 0) {
+                    aboutToWait.countDown();
+                    holder[0].step(1);
+                }
+            });
+            holder[0] = control;
+            assertTrue(control.awaitStep(0, false)); // Would park forever if the step were lost
+            assertEquals(0, aboutToWait.getCount());
+        }
+    }
+
+    @Test
+    void stepRacingWithParkingIsNotLost() throws Exception {
+        for (int round = 0; round < 2000; round++) {
+            StepControl control = new StepControl(CELLS, true, null);
+            Worker worker = new Worker(control);
+            worker.start();
+            if ((round & 1) == 0) Thread.onSpinWait(); // Vary whether the grant lands before or after the park
+            control.step(1);
+            awaitSteps(worker, 1);
+            control.cancel();
+            worker.join();
+        }
+    }
+
+    @Test
+    void stepReleasesExactlyThatManySteps() throws Exception {
+        StepControl control = new StepControl(CELLS, true, null);
+        Worker worker = new Worker(control);
+        worker.start();
+        long expected = 0;
+        for (int count : new int[] {1, 5, 37, 1, 200}) {
+            control.step(count);
+            expected += count;
+            awaitSteps(worker, expected);
+            awaitWaiting(control);
+            assertEquals(expected, worker.steps.get());
+            assertTrue(control.isPaused());
+        }
+        control.cancel();
+        worker.join();
+        assertEquals(expected, worker.steps.get());
+    }
+
+    @Test
+    void concurrentStepGrantsAddUp() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            StepControl control = new StepControl(CELLS, true, null);
+            Worker worker = new Worker(control);
+            worker.start();
+            AtomicLong granted = new AtomicLong();
+            Thread[] granters = new Thread[4];
+            for (int i = 0; i < granters.length; i++) {
+                granters[i] = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < 20; j++) {
+                        int count = 1 + random.nextInt(5);
+                        granted.addAndGet(count);
+                        control.step(count);
+                    }
+                });
+                granters[i].start();
+            }
+            for (Thread granter : granters) {
+                granter.join();
+            }
+            awaitSteps(worker, granted.get());
+            awaitWaiting(control);
+            assertEquals(granted.get(), worker.steps.get());
+            control.cancel();
+            worker.join();
+        }
+    }
+
+    @Test
+    void pauseStopsTheSolveAndResumeLetsItRun() throws Exception {
+        StepControl control = new StepControl(CELLS, false, null);
+        Worker worker = new Worker(control);
+        worker.start();
+        awaitSteps(worker, 1000);
+
+        control.pause();
+        awaitWaiting(control);
+        long atPause = worker.steps.get();
+        Thread.sleep(20);
+        assertEquals(atPause, worker.steps.get());
+        assertTrue(control.isPaused());
+
+        control.resume();
+        assertFalse(control.isPaused());
+        awaitSteps(worker, atPause + 1000);
+
+        worker.stopped.set(true);
+        worker.join();
+        assertTrue(worker.result);
+    }
+
+    @Test
+    void stepWhileRunningPausesAfterThatManySteps() throws Exception {
+        StepControl control = new StepControl(CELLS, false, null);
+        Worker worker = new Worker(control);
+        worker.start();
+        awaitSteps(worker, 100);
+        control.step(3);
+        awaitWaiting(control);
+        long paused = worker.steps.get();
+        Thread.sleep(20);
+        assertEquals(paused, worker.steps.get());
+        control.cancel();
+        worker.join();
+    }
+
+    @Test
+    void breakpointPausesOnPlacementIntoThatCell() {
+        StepControl control = new StepControl(CELLS, false, null);
+        control.setBreakpoint(40, true);
+        assertTrue(control.hasBreakpoint(40));
+        assertTrue(control.awaitStep(39, false));
+        assertTrue(control.awaitStep(40, true)); // Removal from a breakpoint cell does not stop
+        assertFalse(control.isPaused());
+        control.cancel(); // So the step that hits the breakpoint returns instead of blocking
+        assertFalse(control.awaitStep(40, false));
+        assertTrue(control.isPaused());
+    }
+
+    @Test
+    void runToBacktrackPausesAtTheNextRemoval() {
+        StepControl control = new StepControl(CELLS, true, null);
+        control.runToBacktrack();
+        assertTrue(control.awaitStep(3, false));
+        assertFalse(control.isPaused());
+        control.cancel(); // So the removal returns instead of blocking
+        assertFalse(control.awaitStep(3, true));
+        assertTrue(control.isPaused());
+    }
+
+    @Test
+    void runToBacktrackParksAtTheRemovalUntilTheNextStep() throws Exception {
+        StepControl control = new StepControl(CELLS, true, null);
+        control.runToBacktrack();
+        AtomicInteger removals = new AtomicInteger();
+        Thread worker = new Thread(() -> {
+            if (control.awaitStep(3, true)) removals.incrementAndGet();
+        });
+        worker.setDaemon(true);
+        worker.start();
+        awaitWaiting(control);
+        assertEquals(0, removals.get());
+        control.step(1);
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        assertEquals(1, removals.get());
+    }
+
+    @Test
+    void cancelStopsARunningSolveAtItsNextStep() throws Exception {
+        StepControl control = new StepControl(CELLS, false, null);
+        Worker worker = new Worker(control);
+        worker.start();
+        awaitSteps(worker, 1000);
+        control.cancel();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(worker.isAlive());
+        assertFalse(worker.result);
+        assertFalse(control.isPaused()); // Cancelling is not pausing
+        assertFalse(control.awaitStep(0, false));
+    }
+
+    @Test
+    void cancelWakesAParkedSolver() throws Exception {
+        StepControl control = new StepControl(CELLS, true, null);
+        Worker worker = new Worker(control);
+        worker.start();
+        awaitWaiting(control);
+        control.cancel();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(worker.isAlive());
+        assertFalse(worker.result);
+        assertEquals(0, worker.steps.get());
+    }
+
+    @Test
+    void interruptWakesAParkedSolverAndKeepsItsStatus() throws Exception {
+        StepControl control = new StepControl(CELLS, true, null);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicInteger returned = new AtomicInteger(-1);
+        Thread worker = new Thread(() -> {
+            returned.set(control.awaitStep(0, false) ? 1 : 0);
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        worker.setDaemon(true);
+        worker.start();
+        awaitWaiting(control);
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(worker.isAlive());
+        assertEquals(0, returned.get());
+        assertTrue(interrupted.get());
+    }
+
+    private static void awaitSteps(Worker worker, long steps) throws InterruptedException {
+        while (worker.steps.get() < steps) {
+            assertTrue(worker.isAlive(), "worker stopped early");
+            Thread.sleep(0, 100_000);
+        }
+    }
+
+    private static void awaitWaiting(StepControl control) throws InterruptedException {
+        while (!control.isWaiting()) {
+            Thread.sleep(0, 100_000);
+        }
+    }
+}
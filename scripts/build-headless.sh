@@ -0,0 +1,53 @@
+#!/bin/sh
+# Builds the headless solver distribution in dist/headless:
+#   lib/sudoku-headless.jar  solver and cli packages only (no visualizer, nothing that loads AWT)
+#   runtime/                 jlink image with java.base and java.management only
+#   lib/sudoku-headless.jsa  AppCDS archive of the classes a solve loads, for this runtime
+#   bin/sudoku-solve         launcher; takes the same arguments as cli.HeadlessSolver
+# Needs a JDK 17 or later with jmods (JAVA_HOME, or the java on the PATH) and Maven.
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+DIST="$ROOT/dist/headless"
+if [ -z "$JAVA_HOME" ]; then
+    JAVA_HOME=$(dirname "$(dirname "$(readlink -f "$(command -v java)")")")
+fi
+JLINK="$JAVA_HOME/bin/jlink"
+TRAINING="$ROOT/benchmarks/src/main/resources/corpus"
+
+cd "$ROOT"
+mvn -B -q -pl core -am package -DskipTests
+
+rm -rf "$DIST"
+mkdir -p "$DIST/lib" "$DIST/bin"
+cp core/target/sudoku-core-*-headless.jar "$DIST/lib/sudoku-headless.jar"
+
+# No java.desktop in the image: a headless run that reached AWT would fail here instead of
+# silently paying for it. Not compressed, since resources are then read without inflating.
+"$JLINK" --add-modules java.base,java.management \
+    --strip-debug --no-header-files --no-man-pages \
+    --output "$DIST/runtime"
+JAVA="$DIST/runtime/bin/java"
+
+# Training run: a default solve of a small puzzle file, which lists the classes it loaded. Other
+# strategies and options load their few extra classes from the jar as usual.
+cd "$DIST"
+LISTS=$(mktemp -d)
+"$JAVA" -Xshare:off -XX:DumpLoadedClassList="$LISTS/solve.classlist" -cp lib/sudoku-headless.jar \
+    cli.HeadlessSolver -t 2 "$TRAINING/hard.txt" > /dev/null 2>&1
+
+# Dump the archive from the training run's class list. Dumping with G1 also stores the JDK's
+# prebuilt heap objects and module graph in it; since JDK 18 any collector can load them.
+"$JAVA" -XX:+UseG1GC -Xshare:dump -XX:SharedClassListFile="$LISTS/solve.classlist" \
+    -XX:SharedArchiveFile="$DIST/lib/sudoku-headless.jsa" -cp "$DIST/lib/sudoku-headless.jar" > /dev/null
+rm -rf "$LISTS"
+
+cat > bin/sudoku-solve <<'EOF'
+#!/bin/sh
+# Headless Sudoku solver; see cli.HeadlessSolver for the options. JAVA_OPTS is passed to the JVM.
+DIST=$(cd "$(dirname "$0")/.." && pwd)
+exec "$DIST/runtime/bin/java" -XX:SharedArchiveFile="$DIST/lib/sudoku-headless.jsa" \
+    $JAVA_OPTS -cp "$DIST/lib/sudoku-headless.jar" cli.HeadlessSolver "$@"
+EOF
+chmod +x bin/sudoku-solve
+echo "Built $DIST ($(du -sh "$DIST" | cut -f1))"
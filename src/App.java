@@ -1,25 +1,134 @@
+import solver.ConflictTracker;
+import solver.ConstraintBoard;
+import solver.Hint;
+import solver.PropagatingSolver;
+import solver.PuzzleFormat;
+import solver.SolutionCounter;
+import solver.SolveListener;
+import solver.Solver;
+import solver.SolverMetrics;
+import solver.Strategy;
+import solver.TraceReader;
+import solver.TraceWriter;
+import visualizer.BoardView;
+import visualizer.CellUpdateBuffer;
+import visualizer.MetricsPanel;
+import visualizer.RaceFrame;
+import visualizer.StepControl;
+import visualizer.TraceReplayFrame;
+
 import javax.swing.*;
-import javax.swing.border.Border;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Stack;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public class SudokuSolverVisualizer extends JFrame {
 
-    private static final int BOARD_SIZE = 9;
-    private static final int CELL_SIZE = 60;
-    private static final int FONT_SIZE = 30;
-
-    private JTextField[][] cells = new JTextField[BOARD_SIZE][BOARD_SIZE];
-    private JButton solveButton, resetButton, nextStepButton, autoSolveButton;
+    private static final String[] BOARD_SIZES = {"4x4", "9x9", "16x16", "25x25"}; // Box sizes 2 to 5
+    private static final int LARGEST_CELL = 60;
+    private static final int BOARD_PIXELS = 640; // Larger boards get smaller cells so the window still fits
+    private static final int FRAME_MS = 16; // Board repaints are capped at ~60 per second
+    private static final long FLASH_NANOS = TimeUnit.MILLISECONDS.toNanos(50); // How long a tried/backtracked cell stays highlighted
+    private static final long SLOWEST_STEP_NANOS = TimeUnit.SECONDS.toNanos(1); // Step delay at the slow end of the speed slider
+    private static final long LIVE_CHECK_NANOS = TimeUnit.SECONDS.toNanos(2); // Longest search behind the live status while editing
+
+    // Example puzzles for the other board sizes, indexed by box size; the 9x9 one is in initializeBoard()
+    private static final String[] EXAMPLES = {
+            null,
+            null,
+            "0030" +
+            "0400" +
+            "0000" +
+            "4200",
+            null,
+            "GFD304CE0B08519A" +
+            "9000300004E0B720" +
+            "2708A500GD004E00" +
+            "CE000B27051ADFG3" +
+            "02801AB000GF6000" +
+            "5G00E60C4807A000" +
+            "00A0035GD00E0247" +
+            "DC600842B0903G5F" +
+            "E624B9781G05C3F0" +
+            "009B0010FC0000E0" +
+            "0A0000F000049870" +
+            "00C042060080G015" +
+            "047091800F5G0D00" +
+            "A50GCE3D00421B89" +
+            "8B100FA00ED07402" +
+            "300020600009000G",
+            "0009071F8000D3500G0P06LAH" +
+            "JDE3500O94PK00G0A60I00007" +
+            "02K0GED53JI00L6800004000B" +
+            "IAH06K2000N710F00O04J50DE" +
+            "0000FHA6L00009O3D5EJ0000K" +
+            "0GMDJ350C00L02PA0080700O9" +
+            "053C490N17E00D020PLKHIAF0" +
+            "008AI06P2070O10C54300JDGM" +
+            "7O91N00IAH03504D0J0EK0260" +
+            "K6L200G000H0F0I10000B4053" +
+            "6LI020MDE0FN0H07004O0CB3J" +
+            "00N000L200O0971B3CJ0G00MP" +
+            "GMPE000CB560LK2H8AN001700" +
+            "00JBC0017OGPME0KL2I6FAH80" +
+            "O000108A0F5J0BCE00P000KLI" +
+            "A0F0L00M02100N84005CD3JE0" +
+            "CB540070000GEJ3P00620LI0F" +
+            "07O08F0L00000490E0GD2MPK6" +
+            "0K0P0G03JDAF00LN7801094B5" +
+            "D0GJ05B94C06KPMI0L0A18N7O" +
+            "0P2GE00B0300I0KFNH180704C" +
+            "040O01N0F83DJ500P02MLK0I0" +
+            "0JD0BC4009M20G000K0L80F00" +
+            "0N100AIK6L9C4O75JBD3M00P2" +
+            "LI0602PEG081NFHO40C9305JD",
+    };
+
+    private BoardView boardView; // Custom-painted grid; repaints only the cells that change
+    private JButton solveButton, resetButton, nextStepButton, autoSolveButton, replayButton, checkButton, raceButton;
+    private JButton pauseButton, backtrackButton, breakpointButton;
+    private JSpinner stepCountSpinner;
+    private JComboBox<Strategy> strategyBox;
+    private JComboBox<String> sizeBox;
+    private JPanel boardPanel;
+    private JSlider speedSlider;
     private JLabel statusLabel;
-
-    private int[][] board = new int[BOARD_SIZE][BOARD_SIZE];
-    private SwingWorker<Boolean, int[]> currentSolverWorker; // To manage the solving process in a background thread
-    private boolean autoSolving = false;
+    private MetricsPanel metricsPanel; // Live counters of the running solve
+
+    private int box = ConstraintBoard.DEFAULT_BOX; // The board is box * box cells wide
+    private int size = box * box;
+    private int[][] board = new int[size][size];
+    private SudokuSolverWorker currentSolverWorker; // To manage the solving process in a background thread
+    private SwingWorker<Long, Void> currentCheckWorker; // Uniqueness check of the board as entered
+    private ConflictTracker conflicts = new ConflictTracker(box); // Follows every edit, so conflicts show as they are typed
+    private SwingWorker<Boolean, Void> currentLiveWorker; // Solvability and hint for the board being edited
+    private int hintCell = -1; // Cell highlighted by the live hint, -1 = none
+    private final SolutionCounter solutionCounter =
+            new SolutionCounter(ForkJoinPool.commonPool(), SolutionCounter.DEFAULT_SPLIT_DEPTH);
+    private volatile long stepDelayNanos; // Pause between auto-solve steps, 0 = instant
+    private Path lastTrace; // Recording of the last finished solve, opened by "Replay"
+    private final BitSet breakpoints = new BitSet(); // Cells where a solve pauses when it places a digit
+
+    // The worker only writes into this buffer; one shared timer drains it into the cells once per frame
+    private CellUpdateBuffer updates = new CellUpdateBuffer(size * size);
+    private long[] flashUntil = new long[size * size]; // 0 = cell not highlighted
+    private int flashing; // Number of cells currently highlighted
+    private long frameTime;
+    private final Timer frameTimer = new Timer(FRAME_MS, new ActionListener() {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            renderFrame();
+        }
+    });
 
     public SudokuSolverVisualizer() {
         setTitle("Sudoku Solver Visualizer");
@@ -27,7 +136,7 @@ public class SudokuSolverVisualizer extends JFrame {
         setResizable(false);
         setLayout(new BorderLayout());
 
-        JPanel boardPanel = createBoardPanel();
+        boardPanel = createBoardPanel();
         add(boardPanel, BorderLayout.CENTER);
 
         JPanel controlPanel = createControlPanel();
@@ -37,47 +146,59 @@ public class SudokuSolverVisualizer extends JFrame {
         statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
         add(statusLabel, BorderLayout.NORTH);
 
+        metricsPanel = new MetricsPanel();
+        add(metricsPanel, BorderLayout.EAST);
+
         pack();
         setLocationRelativeTo(null); // Center the window
         initializeBoard(); // Set up the initial board (can be empty or a predefined puzzle)
     }
 
     private JPanel createBoardPanel() {
-        JPanel panel = new JPanel(new GridLayout(BOARD_SIZE, BOARD_SIZE));
-        panel.setPreferredSize(new Dimension(BOARD_SIZE * CELL_SIZE, BOARD_SIZE * CELL_SIZE));
+        JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5)); // Padding around the grid
 
-        Border cellBorder = BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1);
-        Border thickBorder = BorderFactory.createLineBorder(Color.BLACK, 2);
-
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                JTextField cell = new JTextField();
-                cell.setPreferredSize(new Dimension(CELL_SIZE, CELL_SIZE));
-                cell.setHorizontalAlignment(JTextField.CENTER);
-                cell.setFont(new Font("Arial", Font.BOLD, FONT_SIZE));
-                cell.setBorder(cellBorder);
-
-                // Add thicker borders for 3x3 blocks
-                if (row % 3 == 0 && row != 0) {
-                    if (col % 3 == 0 && col != 0) {
-                        cell.setBorder(BorderFactory.createMatteBorder(2, 2, 1, 1, Color.BLACK));
-                    } else {
-                        cell.setBorder(BorderFactory.createMatteBorder(2, 0, 1, 1, Color.BLACK));
-                    }
-                } else if (col % 3 == 0 && col != 0) {
-                    cell.setBorder(BorderFactory.createMatteBorder(0, 2, 1, 1, Color.BLACK));
-                }
+        boardView = createBoardView();
+        panel.add(boardView, BorderLayout.CENTER);
+        return panel;
+    }
 
-                cells[row][col] = cell;
-                panel.add(cell);
+    private BoardView createBoardView() {
+        int cellSize = Math.min(LARGEST_CELL, BOARD_PIXELS / size);
+        BoardView view = new BoardView(box, cellSize, cellSize / 2);
+        view.setEditListener(new BoardView.EditListener() {
+            @Override
+            public void cellEdited(int cell, int oldValue, int newValue) {
+                boardEdited(cell, newValue);
             }
-        }
-        return panel;
+        });
+        return view;
+    }
+
+    // Swaps in an empty board view of the new size and loads that size's example puzzle
+    private void changeBoardSize(int newBox) {
+        if (newBox == box) return;
+        box = newBox;
+        size = box * box;
+        board = new int[size][size];
+        conflicts = new ConflictTracker(box);
+        hintCell = -1;
+        stopFrames();
+        updates = new CellUpdateBuffer(size * size);
+        flashUntil = new long[size * size];
+        breakpoints.clear();
+
+        boardPanel.remove(boardView);
+        boardView = createBoardView();
+        boardPanel.add(boardView, BorderLayout.CENTER);
+        pack();
+        setLocationRelativeTo(null);
+        resetBoard();
     }
 
     private JPanel createControlPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10)); // Added spacing
+        JPanel steppingPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
 
         solveButton = new JButton("Solve");
         solveButton.addActionListener(new ActionListener() {
@@ -92,13 +213,49 @@ public class SudokuSolverVisualizer extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
-                    synchronized (currentSolverWorker) {
-                        currentSolverWorker.notify(); // Signal the worker to proceed
+                    // Let the worker take that many steps; it pauses again after them
+                    currentSolverWorker.control.step(((Number) stepCountSpinner.getValue()).longValue());
+                }
+            }
+        });
+        stepCountSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 1_000_000, 1));
+        stepCountSpinner.setToolTipText("Steps taken by Next Step");
+
+        pauseButton = new JButton("Pause");
+        pauseButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
+                    StepControl control = currentSolverWorker.control;
+                    if (control.isPaused()) {
+                        control.resume();
+                    } else {
+                        control.pause();
                     }
                 }
             }
         });
-        nextStepButton.setEnabled(false); // Disabled until a solve process starts
+
+        backtrackButton = new JButton("To Backtrack");
+        backtrackButton.setToolTipText("Run until the search next takes a digit back");
+        backtrackButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
+                    currentSolverWorker.control.runToBacktrack();
+                }
+            }
+        });
+        setSteppingEnabled(false); // Disabled until a solve process starts
+
+        breakpointButton = new JButton("Breakpoint");
+        breakpointButton.setToolTipText("Pause whenever the solver places a digit in the selected cell");
+        breakpointButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                toggleBreakpoint();
+            }
+        });
 
         autoSolveButton = new JButton("Auto Solve");
         autoSolveButton.addActionListener(new ActionListener() {
@@ -116,17 +273,203 @@ public class SudokuSolverVisualizer extends JFrame {
             }
         });
 
+        replayButton = new JButton("Replay");
+        replayButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openReplay();
+            }
+        });
+        replayButton.setEnabled(false); // Enabled once a solve has been recorded
+
+        checkButton = new JButton("Check");
+        checkButton.setToolTipText("Does the puzzle have no, one or several solutions?");
+        checkButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                checkUniqueness();
+            }
+        });
+
+        raceButton = new JButton("Race");
+        raceButton.setToolTipText("Solve the puzzle with every strategy side by side");
+        raceButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                openRace();
+            }
+        });
+
+        sizeBox = new JComboBox<>(BOARD_SIZES);
+        sizeBox.setSelectedIndex(box - ConstraintBoard.MIN_BOX);
+        sizeBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                changeBoardSize(sizeBox.getSelectedIndex() + ConstraintBoard.MIN_BOX);
+            }
+        });
+
+        strategyBox = new JComboBox<>(Strategy.values()); // Search strategy used by Solve and Auto Solve
+
+        // Continuous from slow (left) to instant (right); can be changed while auto-solving
+        speedSlider = new JSlider(0, 100, 54);
+        speedSlider.setToolTipText("Auto-solve speed");
+        speedSlider.addChangeListener(e -> stepDelayNanos = stepDelayFor(speedSlider.getValue()));
+        stepDelayNanos = stepDelayFor(speedSlider.getValue());
+
+        panel.add(sizeBox);
+        panel.add(strategyBox);
         panel.add(solveButton);
-        panel.add(nextStepButton);
         panel.add(autoSolveButton);
         panel.add(resetButton);
+        panel.add(replayButton);
+        panel.add(checkButton);
+        panel.add(raceButton);
+
+        steppingPanel.add(pauseButton);
+        steppingPanel.add(nextStepButton);
+        steppingPanel.add(stepCountSpinner);
+        steppingPanel.add(backtrackButton);
+        steppingPanel.add(breakpointButton);
+        steppingPanel.add(new JLabel("Speed"));
+        steppingPanel.add(speedSlider);
+
+        JPanel rows = new JPanel(new BorderLayout());
+        rows.add(panel, BorderLayout.NORTH);
+        rows.add(steppingPanel, BorderLayout.SOUTH);
+        rows.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+        return rows;
+    }
 
-        return panel;
+    private void setSteppingEnabled(boolean enabled) {
+        pauseButton.setEnabled(enabled);
+        nextStepButton.setEnabled(enabled);
+        stepCountSpinner.setEnabled(enabled);
+        backtrackButton.setEnabled(enabled);
+    }
+
+    // Breakpoints belong to the board, so they carry over to the next solve; a running one picks them up at once
+    private void toggleBreakpoint() {
+        int cell = boardView.selectedCell();
+        if (cell < 0) {
+            statusLabel.setText("Click a cell first, then set a breakpoint on it.");
+            return;
+        }
+        boolean enabled = !breakpoints.get(cell);
+        breakpoints.set(cell, enabled);
+        boardView.setMarked(cell, enabled);
+        if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
+            currentSolverWorker.control.setBreakpoint(cell, enabled);
+        }
+    }
+
+    private void cancelSolve() {
+        if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
+            currentSolverWorker.control.cancel(); // Wakes the worker if it is waiting for a step
+            currentSolverWorker.cancel(true);
+        }
+    }
+
+    private void openReplay() {
+        try {
+            TraceReplayFrame replay = new TraceReplayFrame(new TraceReader(lastTrace), "last solve");
+            replay.setLocationRelativeTo(this);
+            replay.setVisible(true);
+        } catch (IOException e) {
+            statusLabel.setText("Could not open the recorded solve: " + e.getMessage());
+        }
+    }
+
+    // The race gets its own copy of the puzzle, so the board here stays editable meanwhile
+    private void openRace() {
+        if (!readBoardFromUI()) {
+            statusLabel.setText("Invalid input! The highlighted numbers conflict.");
+            return;
+        }
+        RaceFrame race = new RaceFrame(new ConstraintBoard(board));
+        race.setLocationRelativeTo(this);
+        race.setVisible(true);
+    }
+
+    // Cubic curve so the slider has fine control at the fast end; 100 means no delay at all
+    private static long stepDelayFor(int speed) {
+        double slowness = (100 - speed) / 100.0;
+        return (long) (SLOWEST_STEP_NANOS * slowness * slowness * slowness);
+    }
+
+    // Runs on the EDT once per frame while a solve is running or cells are still highlighted
+    private void renderFrame() {
+        frameTime = System.nanoTime();
+        if (currentSolverWorker == null || currentSolverWorker.isCancelled()) {
+            updates.drain(DISCARD);
+        } else {
+            updates.drain(applyUpdate);
+        }
+
+        if (flashing > 0) {
+            for (int cell = 0; cell < flashUntil.length; cell++) {
+                if (flashUntil[cell] != 0 && flashUntil[cell] <= frameTime) {
+                    restoreBackground(cell);
+                }
+            }
+        }
+
+        if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
+            StepControl control = currentSolverWorker.control;
+            statusLabel.setText("Solving (" + currentSolverWorker.strategy + ")... step " + currentSolverWorker.steps
+                    + (control.isWaiting() ? " (paused)" : ""));
+            pauseButton.setText(control.isPaused() ? "Resume" : "Pause");
+            metricsPanel.refresh(false);
+        } else if (flashing == 0) {
+            frameTimer.stop();
+        }
+    }
+
+    private final CellUpdateBuffer.Consumer applyUpdate = new CellUpdateBuffer.Consumer() {
+        @Override
+        public void cellChanged(int cell, int update) {
+            if ((update & CellUpdateBuffer.BACKTRACKED) != 0) { // Backtracking, clear cell and change color
+                boardView.setValue(cell, 0);
+                boardView.setStyle(cell, BoardView.BACKTRACKED); // Indicate backtracking
+            } else {
+                boardView.setValue(cell, update & CellUpdateBuffer.VALUE_MASK);
+                boardView.setStyle(cell, BoardView.TRIED); // Indicate new value tried
+            }
+            // Briefly show the color change; a later frame reverts it
+            if (flashUntil[cell] == 0) flashing++;
+            flashUntil[cell] = frameTime + FLASH_NANOS;
+        }
+    };
+
+    private static final CellUpdateBuffer.Consumer DISCARD = new CellUpdateBuffer.Consumer() {
+        @Override
+        public void cellChanged(int cell, int update) {
+        }
+    };
+
+    private void restoreBackground(int cell) {
+        boardView.resetStyle(cell); // White for empty cells, grey for initial given numbers
+        if (flashUntil[cell] != 0) {
+            flashUntil[cell] = 0;
+            flashing--;
+        }
+    }
+
+    // Drops pending updates and highlights, e.g. before the final board is painted
+    private void stopFrames() {
+        frameTimer.stop();
+        updates.drain(DISCARD);
+        Arrays.fill(flashUntil, 0);
+        flashing = 0;
     }
 
     private void initializeBoard() {
         // You can set an initial puzzle here, or leave it empty for user input
         // Example puzzle:
+        if (box != ConstraintBoard.DEFAULT_BOX) {
+            loadPuzzle(PuzzleFormat.parse(EXAMPLES[box]).toGrid());
+            return;
+        }
         int[][] initialPuzzle = {
                 {5, 3, 0, 0, 7, 0, 0, 0, 0},
                 {6, 0, 0, 1, 9, 5, 0, 0, 0},
@@ -138,270 +481,335 @@ public class SudokuSolverVisualizer extends JFrame {
                 {0, 0, 0, 4, 1, 9, 0, 0, 5},
                 {0, 0, 0, 0, 8, 0, 0, 7, 9}
         };
+        loadPuzzle(initialPuzzle);
+    }
 
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                if (initialPuzzle[r][c] != 0) {
-                    cells[r][c].setText(String.valueOf(initialPuzzle[r][c]));
-                    cells[r][c].setEditable(false); // Lock initial values
-                    cells[r][c].setBackground(new Color(230, 230, 230)); // Grey out initial values
-                } else {
-                    cells[r][c].setText("");
-                    cells[r][c].setEditable(true);
-                    cells[r][c].setBackground(Color.WHITE);
-                }
+    private void loadPuzzle(int[][] initialPuzzle) {
+        conflicts.clear();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int cell = r * size + c;
+                boardView.setValue(cell, initialPuzzle[r][c]);
+                boardView.setGiven(cell, initialPuzzle[r][c] != 0); // Lock and grey out initial values
                 board[r][c] = initialPuzzle[r][c]; // Initialize internal board as well
+                conflicts.set(cell, initialPuzzle[r][c]);
             }
         }
         statusLabel.setText("Puzzle loaded. Click Solve.");
     }
 
+    // Runs on the EDT for every digit typed or cleared: a few counter updates and repaints, then
+    // a fresh background check of the new board
+    private void boardEdited(int cell, int num) {
+        int changed = conflicts.set(cell, num);
+        for (int i = 0; i < changed; i++) {
+            showConflict(conflicts.changed()[i]);
+        }
+        clearHint();
+        restartLiveCheck();
+    }
+
+    private void showConflict(int cell) {
+        if (conflicts.isConflicting(cell)) {
+            boardView.setStyle(cell, BoardView.INVALID); // Highlight the repeated number
+        } else {
+            boardView.resetStyle(cell);
+        }
+    }
+
+    private void clearHint() {
+        if (hintCell >= 0) {
+            showConflict(hintCell);
+            hintCell = -1;
+        }
+    }
+
+    private void cancelLiveCheck() {
+        if (currentLiveWorker != null && !currentLiveWorker.isDone()) {
+            currentLiveWorker.cancel(true);
+        }
+    }
+
+    // Cancels the check of the previous board and starts one for the board as it is now. The
+    // check looks for a hint first, then solves a copy with propagation to see whether the
+    // board still has a solution; it gives up after LIVE_CHECK_NANOS.
+    private void restartLiveCheck() {
+        cancelLiveCheck();
+        if (conflicts.hasConflicts()) {
+            currentLiveWorker = null;
+            statusLabel.setText("The highlighted numbers conflict.");
+            return;
+        }
+        ConstraintBoard puzzle = new ConstraintBoard(box);
+        conflicts.copyTo(puzzle);
+        currentLiveWorker = new SwingWorker<Boolean, Void>() {
+            private Hint hint;
+            private boolean timedOut;
+
+            @Override
+            protected Boolean doInBackground() {
+                long deadline = System.nanoTime() + LIVE_CHECK_NANOS;
+                hint = Hint.find(puzzle);
+                Solver solver = new PropagatingSolver();
+                boolean solved = solver.solve(puzzle, () -> isCancelled() || System.nanoTime() > deadline);
+                timedOut = solver.wasCancelled() && !isCancelled();
+                return solved;
+            }
+
+            @Override
+            protected void done() {
+                if (this != currentLiveWorker || isCancelled()) return;
+                try {
+                    if (timedOut) {
+                        statusLabel.setText("No solution found yet; the board is still very open.");
+                    } else if (!get()) {
+                        statusLabel.setText("No solution: some number entered so far is wrong.");
+                    } else if (puzzle.filledCount() == 0 && hint == null) {
+                        statusLabel.setText("Solvable.");
+                    } else if (hint == null) {
+                        statusLabel.setText("Solvable. No single left to fill in; the next step is a guess.");
+                    } else {
+                        statusLabel.setText("Solvable. Hint: " + hint);
+                        hintCell = hint.cell();
+                        boardView.setStyle(hintCell, BoardView.HINT);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Error during check: " + e.getMessage());
+                }
+            }
+        };
+        currentLiveWorker.execute();
+    }
+
     private void resetBoard() {
-        if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
-            currentSolverWorker.cancel(true); // Cancel any ongoing solving process
+        cancelSolve(); // Cancel any ongoing solving process
+        if (currentCheckWorker != null && !currentCheckWorker.isDone()) {
+            currentCheckWorker.cancel(true);
         }
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                cells[r][c].setText("");
-                cells[r][c].setEditable(true);
-                cells[r][c].setBackground(Color.WHITE);
+        cancelLiveCheck();
+        hintCell = -1;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int cell = r * size + c;
+                boardView.setValue(cell, 0);
+                boardView.setGiven(cell, false);
                 board[r][c] = 0; // Clear internal board
             }
         }
         solveButton.setEnabled(true);
-        nextStepButton.setEnabled(false);
+        setSteppingEnabled(false);
         autoSolveButton.setEnabled(true);
         statusLabel.setText("Board reset. Enter new puzzle or use example.");
         initializeBoard(); // Reload initial puzzle or clear
     }
 
     private void startSolving(boolean auto) {
-        if (currentSolverWorker != null && !currentSolverWorker.isDone()) {
-            currentSolverWorker.cancel(true); // Cancel any previous solving process
-        }
+        cancelSolve(); // Cancel any previous solving process
+        cancelLiveCheck();
+        hintCell = -1;
 
-        // Read the current board state from JTextFields
+        // Read the current board state from the board view
         if (!readBoardFromUI()) {
-            statusLabel.setText("Invalid input! Please enter numbers 1-9 or leave empty.");
+            statusLabel.setText("Invalid input! The highlighted numbers conflict.");
             return;
         }
 
-        autoSolving = auto;
         solveButton.setEnabled(false);
         resetButton.setEnabled(false);
         autoSolveButton.setEnabled(false);
-        nextStepButton.setEnabled(!autoSolving); // Enable next step only if not auto-solving
+        replayButton.setEnabled(false);
+        checkButton.setEnabled(false);
+        strategyBox.setEnabled(false);
+        sizeBox.setEnabled(false);
+        boardView.setEditable(false);
+        setSteppingEnabled(true);
+        pauseButton.setText(auto ? "Pause" : "Resume");
+
+        Strategy strategy = (Strategy) strategyBox.getSelectedItem();
+        statusLabel.setText("Solving (" + strategy + ")...");
+
+        stopFrames();
+        currentSolverWorker = new SudokuSolverWorker(board, strategy, auto); // Solve starts paused, Auto Solve running
+        metricsPanel.setMetrics(currentSolverWorker.metrics);
+        currentSolverWorker.execute(); // Start the SwingWorker
+        frameTimer.start();
+    }
 
-        statusLabel.setText("Solving...");
+    // Counts the solutions of the entered puzzle up to two, off the event dispatch thread
+    private void checkUniqueness() {
+        if (!readBoardFromUI()) {
+            statusLabel.setText("Invalid input! The highlighted numbers conflict.");
+            return;
+        }
+        if (currentCheckWorker != null && !currentCheckWorker.isDone()) {
+            currentCheckWorker.cancel(true);
+        }
+        ConstraintBoard puzzle = new ConstraintBoard(board);
+        statusLabel.setText("Checking...");
+        currentCheckWorker = new SwingWorker<Long, Void>() {
+            private long nanos;
+            private long nodes;
 
-        currentSolverWorker = new SudokuSolverWorker(board);
-        currentSolverWorker.execute(); // Start the SwingWorker
+            @Override
+            protected Long doInBackground() {
+                long start = System.nanoTime();
+                long solutions = solutionCounter.count(puzzle, 2, null, this::isCancelled);
+                nanos = System.nanoTime() - start;
+                nodes = solutionCounter.nodes();
+                return solutions;
+            }
+
+            @Override
+            protected void done() {
+                if (this != currentCheckWorker || isCancelled()) return;
+                try {
+                    long solutions = get();
+                    statusLabel.setText(String.format("Solutions: %s (%.3f ms, %d nodes)",
+                            SolutionCounter.verdict(solutions), nanos / 1e6, nodes));
+                } catch (InterruptedException | ExecutionException e) {
+                    statusLabel.setText("Error during check: " + e.getMessage());
+                }
+            }
+        };
+        currentCheckWorker.execute();
     }
 
     private boolean readBoardFromUI() {
-        for (int r = 0; r < BOARD_SIZE; r++) {
-            for (int c = 0; c < BOARD_SIZE; c++) {
-                String text = cells[r][c].getText().trim();
-                if (text.isEmpty()) {
-                    board[r][c] = 0;
-                } else {
-                    try {
-                        int value = Integer.parseInt(text);
-                        if (value >= 1 && value <= 9) {
-                            board[r][c] = value;
-                            if (!cells[r][c].isEditable()) { // If it was an initial value, keep it grey
-                                cells[r][c].setBackground(new Color(230, 230, 230));
-                            } else {
-                                cells[r][c].setBackground(Color.WHITE);
-                            }
-                        } else {
-                            cells[r][c].setBackground(Color.RED); // Highlight invalid input
-                            return false;
-                        }
-                    } catch (NumberFormatException ex) {
-                        cells[r][c].setBackground(Color.RED); // Highlight non-numeric input
-                        return false;
-                    }
-                }
+        // The tracker has followed every edit, so conflicts are already counted and highlighted
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int cell = r * size + c;
+                board[r][c] = conflicts.get(cell);
+                showConflict(cell); // Also clears what the last solve left highlighted
             }
         }
-        return true;
+        return !conflicts.hasConflicts();
     }
 
     // Inner class for the Sudoku Solver using SwingWorker
-    private class SudokuSolverWorker extends SwingWorker<Boolean, int[]> {
-
-        private int[][] currentBoard; // A copy of the board to work on
-        private final long stepDelayMs = 100; // Delay for auto-solve visualization
-        private Stack<int[]> path; // Stores the path for backtracking visualization
-
-        public SudokuSolverWorker(int[][] initialBoard) {
-            this.currentBoard = new int[BOARD_SIZE][BOARD_SIZE];
-            for (int r = 0; r < BOARD_SIZE; r++) {
-                System.arraycopy(initialBoard[r], 0, this.currentBoard[r], 0, BOARD_SIZE);
+    private class SudokuSolverWorker extends SwingWorker<Boolean, Void> implements SolveListener {
+
+        private final ConstraintBoard currentBoard; // A copy of the board to work on, with row/col/box masks
+        private final Strategy strategy;
+        private final Solver solver; // Keeps the search path in preallocated arrays
+        private final SolverMetrics metrics = new SolverMetrics(); // Read by the metrics panel while the solve runs
+        private final SolverMetrics.Probe probe = metrics.probe();
+        private volatile long steps; // Placements and backtracks so far, written only by the worker
+        private final StepControl control; // Pause, step and breakpoints, driven from the EDT
+        private Path tracePath; // Every step is also recorded here for replay; null if the file couldn't be created
+        private TraceWriter trace;
+
+        public SudokuSolverWorker(int[][] initialBoard, Strategy strategy, boolean running) {
+            this.currentBoard = new ConstraintBoard(initialBoard);
+            this.strategy = strategy;
+            this.solver = strategy.create();
+            // Publishing before each wait keeps the panel exact while paused, not 256 nodes behind
+            this.control = new StepControl(currentBoard.cellCount(), !running, probe::publish);
+            for (int cell = breakpoints.nextSetBit(0); cell >= 0; cell = breakpoints.nextSetBit(cell + 1)) {
+                control.setBreakpoint(cell, true);
+            }
+            try {
+                tracePath = Files.createTempFile("sudoku-solve-", ".trace");
+                tracePath.toFile().deleteOnExit();
+                trace = new TraceWriter(tracePath, currentBoard);
+            } catch (IOException e) {
+                System.err.println("Solve will not be recorded: " + e.getMessage());
+                deleteTrace();
             }
-            this.path = new Stack<>();
         }
 
         @Override
         protected Boolean doInBackground() throws Exception {
-            return solveSudoku(0, 0);
-        }
-
-        private boolean solveSudoku(int row, int col) throws InterruptedException {
-            if (isCancelled()) return false;
-
-            // Move to the next cell
-            if (col == BOARD_SIZE) {
-                col = 0;
-                row++;
-                if (row == BOARD_SIZE) {
-                    // Board solved
-                    publish(-1, -1, -1); // Signal solution found
-                    return true;
-                }
+            boolean solved = false;
+            try {
+                // The probe publishes the solver's counters every time it polls for cancellation
+                solved = solver.solve(currentBoard, this, probe.begin(solver, this::isCancelled));
+                return solved;
+            } finally {
+                probe.end(solved);
+                if (trace != null) trace.close();
             }
+        }
 
-            // If the current cell is not empty, move to the next
-            if (currentBoard[row][col] != 0) {
-                return solveSudoku(row, col + 1);
+        private void deleteTrace() {
+            if (tracePath != null) {
+                tracePath.toFile().delete(); // May fail while a replay window still has it open
+                tracePath = null;
             }
+            trace = null;
+        }
 
-            // Try placing numbers 1 to 9
-            for (int num = 1; num <= 9; num++) {
-                if (isSafe(row, col, num)) {
-                    currentBoard[row][col] = num;
-                    publish(row, col, num); // Publish the current state
-                    path.push(new int[]{row, col, num}); // Push to path
-
-                    if (!autoSolving) {
-                        // Wait for "Next Step" button press if not auto-solving
-                        synchronized (this) {
-                            if (!isCancelled()) { // Check cancellation after publish and before wait
-                                wait();
-                            } else {
-                                return false; // Exit if cancelled during wait
-                            }
-                        }
-                    } else {
-                        Thread.sleep(stepDelayMs); // Short delay for auto-solve
-                    }
-
-                    if (isCancelled()) return false;
-
-                    if (solveSudoku(row, col + 1)) {
-                        return true;
-                    }
-
-                    // Backtrack: If placing num didn't lead to a solution
-                    currentBoard[row][col] = 0; // Reset the cell
-                    publish(row, col, 0); // Publish the reset state
-                    path.pop(); // Pop from path
-                    if (!autoSolving) {
-                        synchronized (this) {
-                            if (!isCancelled()) {
-                                wait(); // Wait after backtracking as well
-                            } else {
-                                return false;
-                            }
-                        }
-                    } else {
-                        Thread.sleep(stepDelayMs);
-                    }
-                    if (isCancelled()) return false;
-                }
-            }
-            return false; // No number worked for this cell
+        @Override
+        public boolean placed(int cell, int num) {
+            if (trace != null) trace.placed(cell, num);
+            updates.placed(cell, num); // Picked up by the next frame
+            steps++;
+            return pauseAfterStep(cell, false);
         }
 
-        private boolean isSafe(int row, int col, int num) {
-            // Check row
-            for (int x = 0; x < BOARD_SIZE; x++) {
-                if (currentBoard[row][x] == num) {
-                    return false;
-                }
-            }
+        @Override
+        public boolean removed(int cell, int num) {
+            // Backtrack: placing num didn't lead to a solution
+            if (trace != null) trace.removed(cell, num);
+            updates.backtracked(cell);
+            steps++;
+            return pauseAfterStep(cell, true);
+        }
 
-            // Check column
-            for (int x = 0; x < BOARD_SIZE; x++) {
-                if (currentBoard[x][col] == num) {
+        // Returns false if the search should stop
+        private boolean pauseAfterStep(int cell, boolean removed) {
+            // Returns at once while running; otherwise waits for Next Step, Resume or To Backtrack
+            if (!control.awaitStep(cell, removed)) return false;
+            long delay = stepDelayNanos;
+            if (delay > 0 && !control.isPaused()) {
+                probe.publish(); // Stepping slowly, so keep the panel exact rather than 256 nodes behind
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay); // Delay chosen with the speed slider
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // cancel(true) interrupts the worker
                     return false;
                 }
             }
-
-            // Check 3x3 box
-            int startRow = row - row % 3;
-            int startCol = col - col % 3;
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    if (currentBoard[i + startRow][j + startCol] == num) {
-                        return false;
-                    }
-                }
-            }
-            return true;
+            return !isCancelled();
         }
 
         @Override
-        protected void process(java.util.List<int[]> chunks) {
-            for (int[] update : chunks) {
-                if (update[0] == -1) { // Signal for solution found
-                    statusLabel.setText("Sudoku Solved!");
-                    return;
-                }
-                int r = update[0];
-                int c = update[1];
-                int val = update[2];
-
-                // Update UI based on the value
-                if (val == 0) { // Backtracking, clear cell and change color
-                    cells[r][c].setText("");
-                    cells[r][c].setBackground(Color.RED); // Indicate backtracking
-                } else {
-                    cells[r][c].setText(String.valueOf(val));
-                    cells[r][c].setBackground(Color.YELLOW); // Indicate new value tried
+        protected void done() {
+            if (this != currentSolverWorker || isCancelled()) {
+                deleteTrace(); // Only a finished solve is kept for replay
+                if (this != currentSolverWorker) {
+                    return; // A newer solve has already taken over the board
                 }
-
-                // Briefly show the color change, then revert to normal for next step
-                Timer timer = new Timer(50, new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        if (board[r][c] == 0) { // If it was an initially empty cell
-                             cells[r][c].setBackground(Color.WHITE);
-                        } else { // If it was an initial given number, keep it grey
-                            cells[r][c].setBackground(new Color(230, 230, 230));
-                        }
-                        ((Timer)e.getSource()).stop(); // Stop the timer
-                    }
-                });
-                timer.setRepeats(false);
-                timer.start();
+            } else if (tracePath != null) {
+                if (lastTrace != null) lastTrace.toFile().delete();
+                lastTrace = tracePath;
             }
-        }
-
-        @Override
-        protected void done() {
+            stopFrames();
+            metricsPanel.refresh(true);
             try {
                 if (get()) { // True if the puzzle was solved
-                    statusLabel.setText("Sudoku Solved Successfully!");
+                    statusLabel.setText("Sudoku Solved Successfully! " + solver.nodes() + " nodes (" + strategy + ")");
                     // Final update of the board if it's not perfectly synchronized
-                    for (int r = 0; r < BOARD_SIZE; r++) {
-                        for (int c = 0; c < BOARD_SIZE; c++) {
-                            if (currentBoard[r][c] != 0) {
-                                cells[r][c].setText(String.valueOf(currentBoard[r][c]));
+                    for (int r = 0; r < size; r++) {
+                        for (int c = 0; c < size; c++) {
+                            int cell = r * size + c;
+                            if (currentBoard.get(r, c) != 0) {
+                                boardView.setValue(cell, currentBoard.get(r, c));
+                                conflicts.set(cell, currentBoard.get(r, c)); // The solution stays on the board for editing
                                 if (board[r][c] == 0) { // If it was a filled cell by solver
-                                     cells[r][c].setBackground(new Color(150, 255, 150)); // Green for solved cells
+                                    boardView.setStyle(cell, BoardView.SOLVED); // Green for solved cells
                                 }
                             }
                         }
                     }
                 } else {
-                    statusLabel.setText("No solution found or process cancelled.");
-                    for (int r = 0; r < BOARD_SIZE; r++) {
-                        for (int c = 0; c < BOARD_SIZE; c++) {
-                            if (board[r][c] == 0 && cells[r][c].isEditable()) { // Only reset cells that were initially empty and modified
-                                cells[r][c].setText("");
-                                cells[r][c].setBackground(Color.WHITE);
+                    statusLabel.setText("No solution found or process cancelled. " + solver.nodes() + " nodes (" + strategy + ")");
+                    for (int r = 0; r < size; r++) {
+                        for (int c = 0; c < size; c++) {
+                            int cell = r * size + c;
+                            if (board[r][c] == 0 && !boardView.isGiven(cell)) { // Only reset cells that were initially empty and modified
+                                boardView.setValue(cell, 0);
+                                boardView.resetStyle(cell);
                             }
                         }
                     }
@@ -415,7 +823,13 @@ public class SudokuSolverVisualizer extends JFrame {
                 solveButton.setEnabled(true);
                 resetButton.setEnabled(true);
                 autoSolveButton.setEnabled(true);
-                nextStepButton.setEnabled(false);
+                strategyBox.setEnabled(true);
+                sizeBox.setEnabled(true);
+                replayButton.setEnabled(lastTrace != null);
+                checkButton.setEnabled(true);
+                boardView.setEditable(true);
+                setSteppingEnabled(false);
+                pauseButton.setText("Pause");
             }
         }
     }
@@ -0,0 +1,155 @@
+package bench;
+
+import solver.BacktrackingSolver;
+import solver.ConstraintBoard;
+import solver.SolveListener;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Stack;
+
+/**
+ * Allocation and GC profile of the search loop. After a warm-up, each configuration solves
+ * the hard puzzles repeatedly while the JVM's per-thread allocation counter and the collector
+ * MXBeans are sampled, giving bytes allocated per node and the GC activity it caused.
+ *
+ * The recursive solver that pushes a boxed {@code int[]} onto a {@link Stack} per placement
+ * (the old GUI worker's shape) is included as the reference point.
+ *
+ * Run with: java -cp bin bench.AllocationProfile [rounds]
+ */
+public class AllocationProfile {
+
+    private static final SolveListener NO_OP = new SolveListener() {
+        @Override
+        public boolean placed(int cell, int num) {
+            return true;
+        }
+
+        @Override
+        public boolean removed(int cell, int num) {
+            return true;
+        }
+    };
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        ConstraintBoard[] givens = new ConstraintBoard[Puzzles.HARD.length];
+        for (int i = 0; i < givens.length; i++) {
+            givens[i] = new ConstraintBoard(Puzzles.parse(Puzzles.HARD[i][1]));
+        }
+
+        Profiled[] profiled = {
+                new Profiled("iterative") {
+                    final BacktrackingSolver solver = new BacktrackingSolver();
+
+                    long solve(ConstraintBoard board) {
+                        solver.solve(board);
+                        return solver.nodes();
+                    }
+                },
+                new Profiled("iterative+listener") {
+                    final BacktrackingSolver solver = new BacktrackingSolver();
+
+                    long solve(ConstraintBoard board) {
+                        solver.solve(board, NO_OP, () -> false);
+                        return solver.nodes();
+                    }
+                },
+                new Profiled("recursive+Stack") {
+                    long solve(ConstraintBoard board) {
+                        return new RecursiveStackSolver(board).solve();
+                    }
+                },
+        };
+
+        System.out.printf("%-20s %14s %14s %12s %8s %10s%n",
+                "solver", "nodes", "bytes", "bytes/node", "GCs", "GC ms");
+        ConstraintBoard board = new ConstraintBoard();
+        for (Profiled p : profiled) {
+            // Warm up so JIT compilation and class loading are out of the measurement
+            for (ConstraintBoard g : givens) {
+                board.copyFrom(g);
+                p.solve(board);
+            }
+
+            long gcCount = gcCount();
+            long gcMillis = gcMillis();
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long nodes = 0;
+            for (int r = 0; r < rounds; r++) {
+                for (ConstraintBoard g : givens) {
+                    board.copyFrom(g);
+                    nodes += p.solve(board);
+                }
+            }
+            bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+            System.out.printf("%-20s %14d %14d %12.4f %8d %10d%n", p.name, nodes, bytes,
+                    (double) bytes / nodes, gcCount() - gcCount, gcMillis() - gcMillis);
+        }
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private abstract static class Profiled {
+        final String name;
+
+        Profiled(String name) {
+            this.name = name;
+        }
+
+        abstract long solve(ConstraintBoard board);
+    }
+
+    // Shape of the old SudokuSolverWorker search: one frame per cell, one boxed step per placement
+    private static class RecursiveStackSolver {
+        private final ConstraintBoard board;
+        private final Stack<int[]> path = new Stack<>();
+        private long nodes;
+
+        RecursiveStackSolver(ConstraintBoard board) {
+            this.board = board;
+        }
+
+        long solve() {
+            solve(0, 0);
+            return nodes;
+        }
+
+        private boolean solve(int row, int col) {
+            if (col == board.size()) {
+                col = 0;
+                row++;
+                if (row == board.size()) return true;
+            }
+            if (board.get(row, col) != 0) return solve(row, col + 1);
+            for (int num = 1; num <= board.size(); num++) {
+                if (board.isSafe(row, col, num)) {
+                    board.place(row, col, num);
+                    path.push(new int[]{row, col, num});
+                    nodes++;
+                    if (solve(row, col + 1)) return true;
+                    board.remove(row, col);
+                    path.pop();
+                }
+            }
+            return false;
+        }
+    }
+}
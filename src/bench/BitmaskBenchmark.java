@@ -0,0 +1,113 @@
+package bench;
+
+import solver.ConstraintBoard;
+
+/**
+ * Compares the original scanning isSafe backtracker with the same search running on
+ * {@link ConstraintBoard}. Both explore the identical tree (row-major cells, digits 1-9),
+ * so the difference is purely the cost of the validity check.
+ *
+ * Run with: java -cp bin bench.BitmaskBenchmark [rounds]
+ */
+public class BitmaskBenchmark {
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        System.out.printf("%-16s %12s %12s %12s %8s%n", "puzzle", "nodes", "scan ms", "bitmask ms", "speedup");
+        for (String[] puzzle : Puzzles.HARD) {
+            int[][] grid = Puzzles.parse(puzzle[1]);
+
+            // Warm both paths up before timing
+            for (int i = 0; i < 2; i++) {
+                new ScanningSolver(grid).solve();
+                new BitmaskSolver(grid).solve();
+            }
+
+            long scanNanos = Long.MAX_VALUE;
+            long maskNanos = Long.MAX_VALUE;
+            long nodes = 0;
+            for (int i = 0; i < rounds; i++) {
+                ScanningSolver scanning = new ScanningSolver(grid);
+                long start = System.nanoTime();
+                scanning.solve();
+                scanNanos = Math.min(scanNanos, System.nanoTime() - start);
+
+                BitmaskSolver bitmask = new BitmaskSolver(grid);
+                start = System.nanoTime();
+                bitmask.solve();
+                maskNanos = Math.min(maskNanos, System.nanoTime() - start);
+                nodes = bitmask.nodes;
+            }
+            System.out.printf("%-16s %12d %12.2f %12.2f %7.2fx%n", puzzle[0], nodes,
+                    scanNanos / 1e6, maskNanos / 1e6, (double) scanNanos / maskNanos);
+        }
+    }
+
+    // The pre-bitmask search, kept here as the reference point
+    private static class ScanningSolver {
+        private final int[][] board = new int[9][9];
+
+        ScanningSolver(int[][] grid) {
+            for (int r = 0; r < 9; r++) {
+                System.arraycopy(grid[r], 0, board[r], 0, 9);
+            }
+        }
+
+        boolean solve() {
+            return solve(0, 0);
+        }
+
+        private boolean solve(int row, int col) {
+            if (col == 9) {
+                col = 0;
+                row++;
+                if (row == 9) return true;
+            }
+            if (board[row][col] != 0) return solve(row, col + 1);
+            for (int num = 1; num <= 9; num++) {
+                if (isSafe(row, col, num)) {
+                    board[row][col] = num;
+                    if (solve(row, col + 1)) return true;
+                    board[row][col] = 0;
+                }
+            }
+            return false;
+        }
+
+        private boolean isSafe(int row, int col, int num) {
+            for (int x = 0; x < 9; x++) {
+                if (board[row][x] == num || board[x][col] == num
+                        || board[row - row % 3 + x / 3][col - col % 3 + x % 3] == num) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class BitmaskSolver {
+        private final ConstraintBoard board;
+        long nodes;
+
+        BitmaskSolver(int[][] grid) {
+            board = new ConstraintBoard(grid);
+        }
+
+        boolean solve() {
+            return solve(0);
+        }
+
+        private boolean solve(int cell) {
+            while (cell < board.cellCount() && board.get(cell) != 0) cell++;
+            if (cell == board.cellCount()) return true;
+            for (long mask = board.candidates(cell); mask != 0; mask &= mask - 1) {
+                board.place(cell, Long.numberOfTrailingZeros(mask) + 1);
+                nodes++;
+                if (solve(cell + 1)) return true;
+                board.remove(cell);
+            }
+            return false;
+        }
+    }
+}
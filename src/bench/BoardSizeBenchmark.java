@@ -0,0 +1,48 @@
+package bench;
+
+import solver.ConstraintBoard;
+import solver.Solver;
+import solver.Strategy;
+
+/**
+ * Solve time of every strategy on 9x9, 16x16 and 25x25 boards. Each solve gets a time limit,
+ * enforced through the cancellation check, so a strategy that blows up on the larger boards
+ * shows as "timeout" instead of stalling the run.
+ *
+ * Run with: java -cp bin bench.BoardSizeBenchmark [rounds] [limit seconds]
+ */
+public class BoardSizeBenchmark {
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        long limitNanos = (long) ((args.length > 1 ? Double.parseDouble(args[1]) : 10) * 1e9);
+
+        String[][] puzzles = new String[Puzzles.HARD.length + Puzzles.LARGE.length][];
+        System.arraycopy(Puzzles.HARD, 0, puzzles, 0, Puzzles.HARD.length);
+        System.arraycopy(Puzzles.LARGE, 0, puzzles, Puzzles.HARD.length, Puzzles.LARGE.length);
+
+        System.out.printf("%-20s %-12s %14s %12s%n", "puzzle", "strategy", "nodes", "ms");
+        for (String[] puzzle : puzzles) {
+            ConstraintBoard givens = new ConstraintBoard(Puzzles.parse(puzzle[1]));
+            ConstraintBoard board = new ConstraintBoard(givens.box());
+            for (Strategy strategy : Strategy.values()) {
+                Solver solver = strategy.create();
+                long best = Long.MAX_VALUE;
+                boolean timedOut = false;
+                // The first round only warms up
+                for (int i = 0; i <= rounds && !timedOut; i++) {
+                    board.copyFrom(givens);
+                    long start = System.nanoTime();
+                    long deadline = start + limitNanos;
+                    solver.solve(board, () -> System.nanoTime() > deadline);
+                    long elapsed = System.nanoTime() - start;
+                    timedOut = solver.wasCancelled();
+                    if (i > 0) best = Math.min(best, elapsed);
+                }
+                System.out.printf("%-20s %-12s %14s %12s%n", puzzle[0], strategy.id(),
+                        timedOut ? "-" : String.valueOf(solver.nodes()),
+                        timedOut ? "timeout" : String.format("%.2f", best / 1e6));
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package bench;
+
+import solver.PuzzleFormat;
+
+/** Reference puzzles shared by the benchmarks, from easy to adversarial for row-major search. */
+final class Puzzles {
+
+    static final String[][] HARD = {
+            {"classic", "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79"},
+            {"AI escargot", "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3.."},
+            {"Easter monster", "1.......2.9.4...5...6...7...5.9.3.......7.......85..4.7.....6...3...9.8...2.....1"},
+            {"Inkala 2012", "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4.."},
+            {"17 clues", "000000010400000000020000000000050407008000300001090000300400200050100000000806000"},
+    };
+
+    /** Larger boards, each with a unique solution, from a 50%+ filled one to sparse ones. */
+    static final String[][] LARGE = {
+            {"16x16, 150 clues",
+                    "GFD304CE0B08519A" +
+                    "9000300004E0B720" +
+                    "2708A500GD004E00" +
+                    "CE000B27051ADFG3" +
+                    "02801AB000GF6000" +
+                    "5G00E60C4807A000" +
+                    "00A0035GD00E0247" +
+                    "DC600842B0903G5F" +
+                    "E624B9781G05C3F0" +
+                    "009B0010FC0000E0" +
+                    "0A0000F000049870" +
+                    "00C042060080G015" +
+                    "047091800F5G0D00" +
+                    "A50GCE3D00421B89" +
+                    "8B100FA00ED07402" +
+                    "300020600009000G"},
+            {"16x16, 108 clues",
+                    "0200FE000050A08D" +
+                    "E00B00006C29050G" +
+                    "03A00G000E1B6000" +
+                    "0540600900080000" +
+                    "000090C4010FBE02" +
+                    "0004000000000001" +
+                    "000000D095C00GA3" +
+                    "108F03GAB2E09C00" +
+                    "602C1F0E000G070A" +
+                    "000050901F000B00" +
+                    "495006000A7D1000" +
+                    "00100070200C59G0" +
+                    "B0E00800C0600000" +
+                    "04030005D8A00000" +
+                    "00000743E002C609" +
+                    "0600E00207000010"},
+            {"16x16, 104 clues",
+                    "000G004007F0030A" +
+                    "F009600A0000E00C" +
+                    "0A60090000EG00D0" +
+                    "00D0000C0000F002" +
+                    "CF0B0D054127A00E" +
+                    "0000060E53000B9F" +
+                    "85300000EG060000" +
+                    "A000170000C00005" +
+                    "900C50360012000B" +
+                    "0000EAG065380C07" +
+                    "005000900000004D" +
+                    "0B00000D0F0C3000" +
+                    "0000006038D40000" +
+                    "D3040E09GA057020" +
+                    "0GA02F00000E0480" +
+                    "00C00003000F60A0"},
+            {"25x25, 400 clues",
+                    "0009071F8000D3500G0P06LAH" +
+                    "JDE3500O94PK00G0A60I00007" +
+                    "02K0GED53JI00L6800004000B" +
+                    "IAH06K2000N710F00O04J50DE" +
+                    "0000FHA6L00009O3D5EJ0000K" +
+                    "0GMDJ350C00L02PA0080700O9" +
+                    "053C490N17E00D020PLKHIAF0" +
+                    "008AI06P2070O10C54300JDGM" +
+                    "7O91N00IAH03504D0J0EK0260" +
+                    "K6L200G000H0F0I10000B4053" +
+                    "6LI020MDE0FN0H07004O0CB3J" +
+                    "00N000L200O0971B3CJ0G00MP" +
+                    "GMPE000CB560LK2H8AN001700" +
+                    "00JBC0017OGPME0KL2I6FAH80" +
+                    "O000108A0F5J0BCE00P000KLI" +
+                    "A0F0L00M02100N84005CD3JE0" +
+                    "CB540070000GEJ3P00620LI0F" +
+                    "07O08F0L00000490E0GD2MPK6" +
+                    "0K0P0G03JDAF00LN7801094B5" +
+                    "D0GJ05B94C06KPMI0L0A18N7O" +
+                    "0P2GE00B0300I0KFNH180704C" +
+                    "040O01N0F83DJ500P02MLK0I0" +
+                    "0JD0BC4009M20G000K0L80F00" +
+                    "0N100AIK6L9C4O75JBD3M00P2" +
+                    "LI0602PEG081NFHO40C9305JD"},
+            {"25x25, 293 clues",
+                    "1L425P000C0000D7F000A0E9I" +
+                    "F07H00E0I9KO00G00J3040501" +
+                    "09A00800BJFH00000025PO0C0" +
+                    "K00O000000020450I90E03000" +
+                    "B083040200000AE00C0G000M0" +
+                    "G0H0000007010O0300I02BL00" +
+                    "D80B0OC1540IA00H00000F970" +
+                    "04000000G0DB02LN00093IJ0E" +
+                    "0000930IEA0000M2D80000045" +
+                    "E030J200D860700O501C0K0PG" +
+                    "7F0M0030A000KGH08BJ05LO10" +
+                    "8BDJ05000109I00GPKC0000F7" +
+                    "0I093D0J000MF6N000L0G00K0" +
+                    "4150000CP0800020000N00000" +
+                    "000C06N0704L100E00030J208" +
+                    "L00D00P50OJ0308FM0G0I0000" +
+                    "000E014D0000N00KCO50FG700" +
+                    "M00G70A000C000P000E80042L" +
+                    "00K50F0GMH00004I9060BE03J" +
+                    "90000B800300H000L00000P00" +
+                    "0000090706000C0J0E0B08100" +
+                    "0DL81CK4053A00B00GP00000N" +
+                    "00000MF0H020DL09N67I00B03" +
+                    "0EJ000082DN000I00000M000H" +
+                    "N000000030HPG0FL2D0000050"},
+            {"25x25, 292 clues",
+                    "O000C00D02080J03A7G0H0004" +
+                    "GE00A0K00CDPNB200H0L0FM0J" +
+                    "4000937E000KI0000800PN000" +
+                    "BDN00F81000H600ICKO0030E0" +
+                    "J108M60L00E03G00000DK005O" +
+                    "D00M04900F00GL60005PC00K0" +
+                    "L7G060CKE002B504F00000N8D" +
+                    "00B000M80NH901F00CE000000" +
+                    "0KO03B2P0I8000NG0A00900H0" +
+                    "0H00F0A000000030NMD82BIP0" +
+                    "00MDP004080LA6H000IBE0703" +
+                    "I005000J004000000000L0006" +
+                    "60ALH0E0070000090100000JN" +
+                    "00CE000000JD0NP0H0000900F" +
+                    "F090800000OEC070000J520B0" +
+                    "0000L000C0NB02001006J0D00" +
+                    "C0K0000000F00M000GA34H009" +
+                    "2NP000000000000KEOCIG0L0A" +
+                    "MF800040913070LP0B0N00EI0" +
+                    "060410G3ALI00C080J000P500" +
+                    "025I00N0P00F1800G0000L000" +
+                    "00064000700I5K010F89ND00P" +
+                    "0000JL00H0C0E700BN0MI5O20" +
+                    "70E300000O00D00000HAF0J08" +
+                    "PM00B1090JA00005O0023EG00"},
+    };
+
+    private Puzzles() {
+    }
+
+    static int[][] parse(String line) {
+        int size = (int) Math.round(Math.sqrt(line.length()));
+        int[][] grid = new int[size][size];
+        for (int i = 0; i < size * size; i++) {
+            grid[i / size][i % size] = Math.max(0, PuzzleFormat.digit(line.charAt(i)));
+        }
+        return grid;
+    }
+}
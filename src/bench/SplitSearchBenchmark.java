@@ -0,0 +1,50 @@
+package bench;
+
+import solver.BacktrackingSolver;
+import solver.ConstraintBoard;
+import solver.ParallelSearch;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Wall-clock latency of a single solve: the sequential backtracker against
+ * {@link ParallelSearch} splitting the top levels of the tree across all cores.
+ *
+ * Run with: java -cp bin bench.SplitSearchBenchmark [rounds] [splitDepth]
+ */
+public class SplitSearchBenchmark {
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int splitDepth = args.length > 1 ? Integer.parseInt(args[1]) : ParallelSearch.DEFAULT_SPLIT_DEPTH;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ParallelSearch parallel = new ParallelSearch(pool, splitDepth);
+        BacktrackingSolver sequential = new BacktrackingSolver();
+
+        System.out.printf("%d threads, split depth %d%n", pool.getParallelism(), splitDepth);
+        System.out.printf("%-16s %15s %15s %8s%n", "puzzle", "sequential ms", "split ms", "speedup");
+        for (String[] puzzle : Puzzles.HARD) {
+            ConstraintBoard givens = new ConstraintBoard(Puzzles.parse(puzzle[1]));
+            ConstraintBoard board = new ConstraintBoard();
+
+            long sequentialNanos = Long.MAX_VALUE;
+            long splitNanos = Long.MAX_VALUE;
+            for (int i = 0; i < rounds + 1; i++) {
+                board.copyFrom(givens);
+                long start = System.nanoTime();
+                sequential.solve(board);
+                long elapsed = System.nanoTime() - start;
+                // The first round only warms up
+                if (i > 0) sequentialNanos = Math.min(sequentialNanos, elapsed);
+
+                board.copyFrom(givens);
+                start = System.nanoTime();
+                parallel.solve(board);
+                elapsed = System.nanoTime() - start;
+                if (i > 0) splitNanos = Math.min(splitNanos, elapsed);
+            }
+            System.out.printf("%-16s %15.2f %15.2f %7.2fx%n", puzzle[0],
+                    sequentialNanos / 1e6, splitNanos / 1e6, (double) sequentialNanos / splitNanos);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package cli;
+
+import solver.CorpusWriter;
+import solver.PackedFormat;
+import solver.PuzzleCorpus;
+import solver.PuzzleFormat;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts between puzzle text files and binary corpora (see {@link PackedFormat}). Text is
+ * packed into a corpus unless the input already is one, in which case it is written back out
+ * as text, one puzzle per line. A corpus holds boards of one size: the first puzzle decides
+ * it, or {@code --box}. Lines of another size, or with characters that are not digits of the
+ * size, are skipped and counted. {@link HeadlessSolver} reads a corpus in place of a text file.
+ *
+ * Usage: java -cp bin cli.CorpusConverter [--box B] input output
+ */
+public class CorpusConverter {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    public static void main(String[] args) throws IOException {
+        int box = -1;
+        String inputPath = null;
+        String outputPath = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--box":
+                    box = Integer.parseInt(args[++i]);
+                    break;
+                case "-h":
+                case "--help":
+                    printUsage();
+                    return;
+                default:
+                    if (inputPath == null) {
+                        inputPath = args[i];
+                    } else if (outputPath == null) {
+                        outputPath = args[i];
+                    } else {
+                        System.err.println("Unknown option: " + args[i]);
+                        printUsage();
+                        System.exit(2);
+                    }
+            }
+        }
+        if (inputPath == null || outputPath == null) {
+            printUsage();
+            System.exit(2);
+        }
+
+        Path input = Paths.get(inputPath);
+        long start = System.nanoTime();
+        long puzzles;
+        if (!inputPath.equals("-") && PuzzleCorpus.isCorpus(input)) {
+            puzzles = toText(input, outputPath);
+        } else {
+            puzzles = toCorpus(inputPath, Paths.get(outputPath), box);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long inBytes = inputPath.equals("-") ? 0 : Files.size(input);
+        long outBytes = outputPath.equals("-") ? 0 : Files.size(Paths.get(outputPath));
+        System.err.printf("%d puzzles in %.3f s: %.0f puzzles/s, %d -> %d bytes (%.1f -> %.1f bytes/puzzle)%n",
+                puzzles, seconds, puzzles / seconds, inBytes, outBytes,
+                puzzles == 0 ? 0.0 : (double) inBytes / puzzles, puzzles == 0 ? 0.0 : (double) outBytes / puzzles);
+    }
+
+    private static long toCorpus(String inputPath, Path output, int box) throws IOException {
+        InputStream in = inputPath.equals("-") ? System.in : new FileInputStream(inputPath);
+        byte[] line = new byte[PuzzleFormat.MAX_LINE_LENGTH + 1];
+        long skipped = 0;
+        CorpusWriter writer = null;
+        try (PuzzleReader reader = new PuzzleReader(in)) {
+            int length;
+            while ((length = reader.next(line)) != -1) {
+                int lineBox = PuzzleFormat.boxForLength(length);
+                if (writer == null && lineBox > 0 && (box < 0 || lineBox == box)) {
+                    writer = new CorpusWriter(output, lineBox);
+                }
+                if (writer == null || lineBox != writer.box() || !writer.add(line, 0)) {
+                    skipped++;
+                    if (skipped <= 10) System.err.println("Skipped line " + reader.lineNumber());
+                }
+            }
+            if (writer == null) writer = new CorpusWriter(output, box > 0 ? box : 3);
+        } finally {
+            if (writer != null) writer.close();
+        }
+        if (skipped > 0) System.err.println(skipped + " lines skipped");
+        return writer.count();
+    }
+
+    private static long toText(Path input, String outputPath) throws IOException {
+        OutputStream out = new BufferedOutputStream(
+                outputPath.equals("-") ? System.out : new FileOutputStream(outputPath), OUTPUT_BUFFER_SIZE);
+        try (PuzzleCorpus corpus = new PuzzleCorpus(input)) {
+            byte[] line = new byte[corpus.cellCount() + 1];
+            line[line.length - 1] = '\n';
+            for (long i = 0; i < corpus.size(); i++) {
+                corpus.format(i, line, 0);
+                out.write(line);
+            }
+            return corpus.size();
+        } finally {
+            out.flush();
+            if (out != System.out) out.close();
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -cp bin cli.CorpusConverter [--box B] input output");
+        System.err.println("  Packs a puzzle file (one puzzle per line, '-' for stdin) into a binary corpus,");
+        System.err.println("  or writes a binary corpus back out as text ('-' for stdout).");
+        System.err.println("  --box B                  keep only puzzles of box size B (3 for 9x9); default:");
+        System.err.println("                           the size of the first puzzle");
+    }
+}
@@ -0,0 +1,202 @@
+package cli;
+
+import solver.ConstraintBoard;
+import solver.Difficulty;
+import solver.PuzzleFormat;
+import solver.PuzzleGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Generates graded puzzles with a unique solution on all cores and streams them to a file or
+ * stdout, one line per puzzle: the puzzle in {@link PuzzleFormat}, a space and its
+ * {@link Difficulty}. {@link PuzzleReader} stops a puzzle at the space, so the output can be
+ * fed to {@link HeadlessSolver} as it is.
+ *
+ * Every thread runs its own {@link PuzzleGenerator} on a random stream split from one seed,
+ * and writes its puzzles in batches, so the order of the lines depends on thread timing unless
+ * there is a single thread. {@code --difficulty} keeps only puzzles of the listed grades; the
+ * others are generated and thrown away, so asking for rare grades only costs time.
+ *
+ * Usage: java -cp bin cli.HeadlessGenerator [-n count] [-o output] [-t threads] [--box B]
+ *                                           [--difficulty easy,medium,hard,expert] [--seed S]
+ */
+public class HeadlessGenerator {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int BATCH_PUZZLES = 64;
+    private static final int SUFFIX_ROOM = 8; // " expert\n"
+
+    public static void main(String[] args) throws IOException {
+        long count = 1000;
+        String outputPath = "-";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int box = ConstraintBoard.DEFAULT_BOX;
+        Set<Difficulty> wanted = EnumSet.allOf(Difficulty.class);
+        long seed = System.nanoTime();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n":
+                case "--count":
+                    count = Long.parseLong(args[++i]);
+                    break;
+                case "-o":
+                case "--output":
+                    outputPath = args[++i];
+                    break;
+                case "-t":
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--box":
+                    box = Integer.parseInt(args[++i]);
+                    break;
+                case "--difficulty":
+                    wanted = EnumSet.noneOf(Difficulty.class);
+                    try {
+                        for (String id : args[++i].split(",")) {
+                            wanted.add(Difficulty.fromId(id.trim()));
+                        }
+                    } catch (IllegalArgumentException e) {
+                        System.err.println(e.getMessage());
+                        printUsage();
+                        System.exit(2);
+                    }
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "-h":
+                case "--help":
+                    printUsage();
+                    return;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    printUsage();
+                    System.exit(2);
+            }
+        }
+        if (threads < 1 || count < 1) {
+            System.err.println("Thread count and puzzle count must be at least 1");
+            System.exit(2);
+        }
+        if (box < ConstraintBoard.MIN_BOX || box > ConstraintBoard.MAX_BOX) {
+            System.err.println("Box size must be between " + ConstraintBoard.MIN_BOX + " and " + ConstraintBoard.MAX_BOX);
+            System.exit(2);
+        }
+
+        OutputStream out = new BufferedOutputStream(
+                outputPath.equals("-") ? System.out : new FileOutputStream(outputPath), OUTPUT_BUFFER_SIZE);
+        Run run = new Run(count, box, wanted, out);
+        SplittableRandom random = new SplittableRandom(seed);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom stream = random.split();
+            workers[i] = new Thread(() -> run.generate(stream), "generator-" + i);
+        }
+
+        long start = System.nanoTime();
+        try {
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            out.flush();
+            if (out != System.out) out.close();
+        }
+        if (run.error != null) throw run.error;
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        StringBuilder grades = new StringBuilder();
+        for (Difficulty difficulty : Difficulty.values()) {
+            if (grades.length() > 0) grades.append(", ");
+            grades.append(run.byGrade.get(difficulty.ordinal())).append(' ').append(difficulty.id());
+        }
+        long written = Math.min(run.accepted.get(), count);
+        System.err.printf("%d puzzles in %.3f s: %.0f puzzles/s (%d generated: %s)%n",
+                written, seconds, written / seconds, run.generated.get(), grades);
+    }
+
+    // State shared by the generator threads of one run
+    private static class Run {
+        final long count;
+        final int box;
+        final Set<Difficulty> wanted;
+        final OutputStream out;
+        final AtomicLong accepted = new AtomicLong();
+        final AtomicLong generated = new AtomicLong();
+        final AtomicLongArray byGrade = new AtomicLongArray(Difficulty.values().length);
+        volatile IOException error;
+
+        Run(long count, int box, Set<Difficulty> wanted, OutputStream out) {
+            this.count = count;
+            this.box = box;
+            this.wanted = wanted;
+            this.out = out;
+        }
+
+        void generate(SplittableRandom random) {
+            PuzzleGenerator generator = new PuzzleGenerator(box, random);
+            ConstraintBoard puzzle = new ConstraintBoard(box);
+            int cells = puzzle.cellCount();
+            byte[] batch = new byte[BATCH_PUZZLES * (cells + SUFFIX_ROOM)];
+            int length = 0;
+            int batched = 0;
+            try {
+                while (accepted.get() < count && error == null) {
+                    Difficulty difficulty = generator.generate(puzzle);
+                    generated.incrementAndGet();
+                    byGrade.incrementAndGet(difficulty.ordinal());
+                    if (!wanted.contains(difficulty) || accepted.getAndIncrement() >= count) continue;
+
+                    PuzzleFormat.format(puzzle, batch, length);
+                    length += cells;
+                    batch[length++] = ' ';
+                    for (int i = 0; i < difficulty.id().length(); i++) {
+                        batch[length++] = (byte) difficulty.id().charAt(i);
+                    }
+                    batch[length++] = '\n';
+                    if (++batched == BATCH_PUZZLES) {
+                        write(batch, length);
+                        length = 0;
+                        batched = 0;
+                    }
+                }
+                write(batch, length);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        private void write(byte[] batch, int length) throws IOException {
+            synchronized (out) {
+                out.write(batch, 0, length);
+            }
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -cp bin cli.HeadlessGenerator [options]");
+        System.err.println("  Writes puzzles with exactly one solution, one per line followed by its difficulty.");
+        System.err.println("  -n, --count N            number of puzzles (default 1000)");
+        System.err.println("  -o, --output FILE        write to FILE instead of stdout");
+        System.err.println("  -t, --threads N          generator threads (default: number of cores)");
+        System.err.println("  --box B                  box size: 3 for 9x9 (default), 4 for 16x16 and so on");
+        System.err.println("  --difficulty LIST        keep only these grades, comma separated:");
+        System.err.println("                           easy, medium, hard, expert (default: all)");
+        System.err.println("  --seed S                 random seed; with one thread the output repeats exactly");
+    }
+}
@@ -0,0 +1,441 @@
+package cli;
+
+import solver.CachingSolver;
+import solver.ConstraintBoard;
+import solver.ParallelSearch;
+import solver.PuzzleCorpus;
+import solver.PuzzleFormat;
+import solver.SolutionCache;
+import solver.SolutionCounter;
+import solver.Solver;
+import solver.SolverMetrics;
+import solver.Strategy;
+import solver.TraceWriter;
+
+import javax.management.JMException;
+
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Batch solver without any Swing dependency. Streams puzzles from a file or stdin, one per
+ * line in {@link PuzzleFormat} (81 characters for 9x9, 256 for 16x16, 625 for 25x25; sizes
+ * can be mixed), and writes one line per puzzle: the solution, or the puzzle followed by
+ * " unsolvable" / " invalid". Throughput is reported on stderr.
+ *
+ * With more than one thread the work goes through {@link ParallelBatchSolver}; {@code --scaling}
+ * re-runs a file input at 1, 2, 4, ... threads and prints the speedup of each run.
+ * {@code --split-depth} instead solves puzzles one at a time, each with its search tree split
+ * across the threads by {@link ParallelSearch}; that is the mode for a few very hard puzzles.
+ * {@code --strategy} picks the search algorithm (see {@link Strategy}). {@code --trace} solves
+ * only the first puzzle and records every step of its search for replay in the visualizer.
+ * {@code --metrics} prints the live {@link SolverMetrics} as JSON lines on stderr, and
+ * {@code --jmx} publishes them as an MBean for the length of the run. {@code --count} checks
+ * puzzles instead of solving them: each line gets the number of solutions, counted up to the
+ * limit with the search split across the threads by {@link SolutionCounter}. {@code --cache}
+ * answers repeated puzzles and their symmetric variants from a {@link SolutionCache}, which
+ * {@code --cache-file} keeps on disk between runs. The input may also be a binary corpus
+ * written by {@link CorpusConverter}, whose puzzles are loaded straight from the mapped file.
+ *
+ * Usage: java -cp bin cli.HeadlessSolver [-o output] [-t threads] [--order input|completion]
+ *                                        [--scaling] [--split-depth D]
+ *                                        [--strategy naive|mrv|propagation|dlx] [--trace file]
+ *                                        [--metrics seconds] [--jmx] [--count limit]
+ *                                        [--cache entries] [--cache-file file] [input | -]
+ */
+public class HeadlessSolver {
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int DEFAULT_CACHE_ENTRIES = 1 << 20;
+    private static final byte[] UNSOLVABLE = " unsolvable".getBytes();
+    private static final byte[] INVALID = " invalid".getBytes();
+
+    public static void main(String[] args) throws IOException {
+        String inputPath = "-";
+        String outputPath = "-";
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean inputOrder = true;
+        boolean scaling = false;
+        int splitDepth = 0;
+        Strategy strategy = Strategy.NAIVE;
+        String tracePath = null;
+        double metricsInterval = 0;
+        boolean jmx = false;
+        long countLimit = 0;
+        int cacheEntries = 0;
+        String cachePath = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":
+                case "--output":
+                    outputPath = args[++i];
+                    break;
+                case "-t":
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--order":
+                    String order = args[++i];
+                    if (!order.equals("input") && !order.equals("completion")) {
+                        System.err.println("Unknown order: " + order);
+                        printUsage();
+                        System.exit(2);
+                    }
+                    inputOrder = order.equals("input");
+                    break;
+                case "--scaling":
+                    scaling = true;
+                    break;
+                case "--split-depth":
+                    splitDepth = Integer.parseInt(args[++i]);
+                    break;
+                case "--strategy":
+                    try {
+                        strategy = Strategy.fromId(args[++i]);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println(e.getMessage());
+                        printUsage();
+                        System.exit(2);
+                    }
+                    break;
+                case "--trace":
+                    tracePath = args[++i];
+                    break;
+                case "--metrics":
+                    metricsInterval = Double.parseDouble(args[++i]);
+                    break;
+                case "--jmx":
+                    jmx = true;
+                    break;
+                case "--count":
+                    countLimit = Long.parseLong(args[++i]);
+                    if (countLimit < 1) {
+                        System.err.println("Count limit must be at least 1");
+                        System.exit(2);
+                    }
+                    break;
+                case "--cache":
+                    cacheEntries = Integer.parseInt(args[++i]);
+                    break;
+                case "--cache-file":
+                    cachePath = args[++i];
+                    break;
+                case "-h":
+                case "--help":
+                    printUsage();
+                    return;
+                default:
+                    inputPath = args[i];
+            }
+        }
+
+        if (threads < 1) {
+            System.err.println("Thread count must be at least 1");
+            System.exit(2);
+        }
+        PuzzleCorpus corpus = null;
+        if (!inputPath.equals("-") && PuzzleCorpus.isCorpus(Paths.get(inputPath))) {
+            if (scaling || countLimit > 0 || tracePath != null) {
+                System.err.println("--scaling, --count and --trace need a text input");
+                System.exit(2);
+            }
+            corpus = new PuzzleCorpus(Paths.get(inputPath));
+        }
+        if (scaling) {
+            if (inputPath.equals("-")) {
+                System.err.println("--scaling needs an input file, since the input is read once per run");
+                System.exit(2);
+            }
+            scalingReport(inputPath, threads, inputOrder, strategy);
+            return;
+        }
+        if (countLimit > 0) {
+            countReport(inputPath, outputPath, threads, splitDepth, countLimit);
+            return;
+        }
+
+        InputStream in = corpus != null ? InputStream.nullInputStream()
+                : inputPath.equals("-") ? System.in : new FileInputStream(inputPath);
+        OutputStream out = new BufferedOutputStream(
+                outputPath.equals("-") ? System.out : new FileOutputStream(outputPath), OUTPUT_BUFFER_SIZE);
+
+        SolverMetrics metrics = new SolverMetrics();
+        if (jmx) {
+            try {
+                System.err.println("Metrics registered as " + metrics.register("headless"));
+            } catch (JMException e) {
+                System.err.println("Could not register the metrics MBean: " + e.getMessage());
+            }
+        }
+        MetricsReporter reporter = new MetricsReporter(metrics, System.err, (long) (metricsInterval * 1000));
+        if (metricsInterval > 0) reporter.start();
+
+        if (cachePath != null && cacheEntries == 0) cacheEntries = DEFAULT_CACHE_ENTRIES;
+        SolutionCache cache = cacheEntries == 0 ? null
+                : cachePath == null ? new SolutionCache(cacheEntries) : SolutionCache.open(Paths.get(cachePath), cacheEntries);
+        Strategy chosen = strategy;
+        Supplier<Solver> solvers = cache == null ? strategy::create : () -> new CachingSolver(chosen.create(), cache);
+
+        long start = System.nanoTime();
+        Totals totals;
+        try (PuzzleReader reader = new PuzzleReader(in)) {
+            if (tracePath != null) {
+                totals = traceFirst(reader, out, strategy.create(), metrics, Paths.get(tracePath));
+            } else if (splitDepth > 0) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    Solver solver = new ParallelSearch(pool, splitDepth, strategy);
+                    if (cache != null) solver = new CachingSolver(solver, cache);
+                    totals = corpus != null ? solveAll(corpus, out, solver, metrics) : solveAll(reader, out, solver, metrics);
+                } finally {
+                    pool.shutdown();
+                }
+            } else if (threads == 1) {
+                totals = corpus != null ? solveAll(corpus, out, solvers.get(), metrics)
+                        : solveAll(reader, out, solvers.get(), metrics);
+            } else {
+                ParallelBatchSolver batch = new ParallelBatchSolver(threads, inputOrder, solvers, metrics);
+                totals = corpus != null ? batch.run(corpus, out) : batch.run(reader, out);
+            }
+        } finally {
+            if (corpus != null) corpus.close();
+            out.flush();
+            if (out != System.out) out.close();
+            if (metricsInterval > 0) reporter.close();
+            if (cache != null) cache.close();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double seconds = elapsed / 1e9;
+        System.err.printf("%d puzzles (%d unsolvable, %d invalid) in %.3f s: %.0f puzzles/s, %d nodes (%s)%n",
+                totals.puzzles, totals.unsolvable, totals.invalid, seconds, totals.puzzles / seconds,
+                totals.nodes, strategy.id());
+        if (cache != null) System.err.println("Cache: " + cache.summary());
+    }
+
+    private static void scalingReport(String inputPath, int maxThreads, boolean inputOrder, Strategy strategy)
+            throws IOException {
+        System.err.printf("%8s %12s %14s %9s %11s%n", "threads", "seconds", "puzzles/s", "speedup", "efficiency");
+        double baseline = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            long start = System.nanoTime();
+            Totals totals;
+            try (PuzzleReader reader = new PuzzleReader(new FileInputStream(inputPath))) {
+                totals = new ParallelBatchSolver(threads, inputOrder, strategy)
+                        .run(reader, OutputStream.nullOutputStream());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double rate = totals.puzzles / seconds;
+            if (threads == 1) baseline = rate;
+            System.err.printf("%8d %12.3f %14.0f %8.2fx %10.0f%%%n",
+                    threads, seconds, rate, rate / baseline, 100 * rate / baseline / threads);
+            if (threads == maxThreads) break;
+        }
+    }
+
+    private static void countReport(String inputPath, String outputPath, int threads, int splitDepth, long limit)
+            throws IOException {
+        InputStream in = inputPath.equals("-") ? System.in : new FileInputStream(inputPath);
+        OutputStream out = new BufferedOutputStream(
+                outputPath.equals("-") ? System.out : new FileOutputStream(outputPath), OUTPUT_BUFFER_SIZE);
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        SolutionCounter counter = new SolutionCounter(pool,
+                splitDepth > 0 ? splitDepth : SolutionCounter.DEFAULT_SPLIT_DEPTH);
+
+        long start = System.nanoTime();
+        long puzzles = 0;
+        long invalid = 0;
+        long nodes = 0;
+        long[] byCount = new long[3]; // none, unique, multiple
+        try (PuzzleReader reader = new PuzzleReader(in)) {
+            ConstraintBoard[] boards = new ConstraintBoard[ConstraintBoard.MAX_BOX + 1];
+            byte[] line = new byte[PuzzleFormat.MAX_LINE_LENGTH + 1];
+            int length;
+            while ((length = reader.next(line)) != -1) {
+                puzzles++;
+                ConstraintBoard board = boardFor(boards, length);
+                out.write(line, 0, Math.min(length, line.length));
+                if (board == null || !PuzzleFormat.parse(line, 0, board)) {
+                    invalid++;
+                    out.write(INVALID);
+                } else {
+                    long solutions = counter.count(board, limit);
+                    nodes += counter.nodes();
+                    byCount[(int) Math.min(solutions, 2)]++;
+                    // "N+" when the count stopped at the limit and there may be more
+                    out.write((" " + solutions + (solutions == limit ? "+" : "")).getBytes());
+                }
+                out.write('\n');
+            }
+        } finally {
+            out.flush();
+            if (out != System.out) out.close();
+            if (pool != null) pool.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // A limit of 1 stops at the first solution, so it cannot tell unique from multiple
+        String counts = limit >= 2
+                ? String.format("%d none, %d unique, %d multiple", byCount[0], byCount[1], byCount[2])
+                : String.format("%d none, %d with 1+ solutions", byCount[0], byCount[1]);
+        System.err.printf("%d puzzles (%s, %d invalid) in %.3f s: %.3f ms/puzzle, %d nodes%n",
+                puzzles, counts, invalid, seconds, puzzles == 0 ? 0 : seconds * 1000 / puzzles, nodes);
+    }
+
+    static Totals solveAll(PuzzleReader reader, OutputStream out, Solver solver, SolverMetrics metrics)
+            throws IOException {
+        Totals totals = new Totals();
+        SolverMetrics.Probe probe = metrics.probe();
+        ConstraintBoard[] boards = new ConstraintBoard[ConstraintBoard.MAX_BOX + 1];
+        byte[] line = new byte[PuzzleFormat.MAX_LINE_LENGTH + 1];
+        byte[] solution = new byte[PuzzleFormat.MAX_LINE_LENGTH];
+
+        int length;
+        while ((length = reader.next(line)) != -1) {
+            totals.puzzles++;
+            ConstraintBoard board = boardFor(boards, length);
+            if (board == null || !PuzzleFormat.parse(line, 0, board)) {
+                totals.invalid++;
+                out.write(line, 0, Math.min(length, line.length));
+                out.write(INVALID);
+            } else if (solveProbed(solver, board, probe)) {
+                totals.nodes += solver.nodes();
+                PuzzleFormat.format(board, solution, 0);
+                out.write(solution, 0, length);
+            } else {
+                totals.nodes += solver.nodes();
+                totals.unsolvable++;
+                out.write(line, 0, length);
+                out.write(UNSOLVABLE);
+            }
+            out.write('\n');
+        }
+        return totals;
+    }
+
+    static Totals solveAll(PuzzleCorpus corpus, OutputStream out, Solver solver, SolverMetrics metrics)
+            throws IOException {
+        Totals totals = new Totals();
+        SolverMetrics.Probe probe = metrics.probe();
+        ConstraintBoard board = new ConstraintBoard(corpus.box());
+        byte[] line = new byte[corpus.cellCount()];
+
+        for (long i = 0; i < corpus.size(); i++) {
+            totals.puzzles++;
+            if (!corpus.load(i, board)) {
+                totals.invalid++;
+                corpus.format(i, line, 0);
+                out.write(line);
+                out.write(INVALID);
+            } else if (solveProbed(solver, board, probe)) {
+                totals.nodes += solver.nodes();
+                PuzzleFormat.format(board, line, 0);
+                out.write(line);
+            } else {
+                totals.nodes += solver.nodes();
+                totals.unsolvable++;
+                corpus.format(i, line, 0);
+                out.write(line);
+                out.write(UNSOLVABLE);
+            }
+            out.write('\n');
+        }
+        return totals;
+    }
+
+    static boolean solveProbed(Solver solver, ConstraintBoard board, SolverMetrics.Probe probe) {
+        probe.begin(solver);
+        boolean solved = solver.solve(board);
+        probe.end(solved);
+        return solved;
+    }
+
+    // Solves the first puzzle of the input with every placement and removal written to tracePath
+    private static Totals traceFirst(PuzzleReader reader, OutputStream out, Solver solver, SolverMetrics metrics,
+                                     Path tracePath) throws IOException {
+        Totals totals = new Totals();
+        byte[] line = new byte[PuzzleFormat.MAX_LINE_LENGTH + 1];
+        int length = reader.next(line);
+        if (length == -1) return totals;
+
+        totals.puzzles++;
+        ConstraintBoard board = boardFor(new ConstraintBoard[ConstraintBoard.MAX_BOX + 1], length);
+        if (board == null || !PuzzleFormat.parse(line, 0, board)) {
+            totals.invalid++;
+            out.write(line, 0, Math.min(length, line.length));
+            out.write(INVALID);
+            out.write('\n');
+            return totals;
+        }
+        boolean solved;
+        SolverMetrics.Probe probe = metrics.probe();
+        try (TraceWriter trace = new TraceWriter(tracePath, board)) {
+            solved = solver.solve(board, trace, probe.begin(solver, Solver.NEVER));
+            probe.end(solved);
+            System.err.printf("Recorded %d events to %s%n", trace.eventCount(), tracePath);
+        }
+        totals.nodes += solver.nodes();
+        if (solved) {
+            byte[] solution = new byte[length];
+            PuzzleFormat.format(board, solution, 0);
+            out.write(solution);
+        } else {
+            totals.unsolvable++;
+            out.write(line, 0, length);
+            out.write(UNSOLVABLE);
+        }
+        out.write('\n');
+        return totals;
+    }
+
+    /**
+     * The board for a puzzle line of {@code length} characters, taken from (or added to) the
+     * per-size cache {@code boards}; null if no board size has lines of that length.
+     */
+    static ConstraintBoard boardFor(ConstraintBoard[] boards, int length) {
+        int box = PuzzleFormat.boxForLength(length);
+        if (box < 0) return null;
+        if (boards[box] == null) boards[box] = new ConstraintBoard(box);
+        return boards[box];
+    }
+
+    static class Totals {
+        long puzzles;
+        long unsolvable;
+        long invalid;
+        long nodes;
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -cp bin cli.HeadlessSolver [options] [input | -]");
+        System.err.println("  Reads one puzzle per line ('.' or '0' for empty cells): 81 characters for 9x9,");
+        System.err.println("  256 for 16x16 (digits 1-9, A-G), 625 for 25x25 (1-9, A-P) and so on,");
+        System.err.println("  and writes one solution per line. Reads stdin when no input is given. The input");
+        System.err.println("  may also be a binary corpus written by cli.CorpusConverter.");
+        System.err.println("  -o, --output FILE        write solutions to FILE instead of stdout");
+        System.err.println("  -t, --threads N          solver threads (default: number of cores)");
+        System.err.println("  --order input|completion output order when solving in parallel (default: input)");
+        System.err.println("  --scaling                solve the input at 1, 2, 4, ... threads and report speedup");
+        System.err.println("  --strategy NAME          naive (default), mrv, propagation or dlx");
+        System.err.println("  --split-depth D          solve one puzzle at a time, splitting its top D search levels");
+        System.err.println("                           across the threads (for very hard puzzles)");
+        System.err.println("  --trace FILE             solve only the first puzzle and record its search to FILE");
+        System.err.println("                           (replay with java -cp bin visualizer.TraceReplayFrame FILE)");
+        System.err.println("  --metrics SECONDS        print search metrics to stderr as a JSON line every SECONDS");
+        System.err.println("  --jmx                    publish the metrics as the MBean");
+        System.err.println("                           sudoku:type=SolverMetrics,name=\"headless\"");
+        System.err.println("  --count LIMIT            write each puzzle with its number of solutions, counting");
+        System.err.println("                           at most LIMIT (2 checks uniqueness; N+ means N or more)");
+        System.err.println("  --cache ENTRIES          answer repeated and symmetric puzzles from a cache of ENTRIES");
+        System.err.println("                           solutions (least recently used ones are dropped)");
+        System.err.println("  --cache-file FILE        keep the cache in FILE across runs (default size 1048576)");
+    }
+}
@@ -0,0 +1,60 @@
+package cli;
+
+import solver.SolverMetrics;
+
+import java.io.PrintStream;
+
+/**
+ * Prints a {@link SolverMetrics} snapshot as one JSON object per line at a fixed interval,
+ * from a daemon thread, and a last line when closed. The node rate in each line covers the
+ * interval since the line before it.
+ */
+class MetricsReporter implements AutoCloseable {
+
+    private final SolverMetrics metrics;
+    private final PrintStream out;
+    private final long intervalMillis;
+    private final Thread thread;
+    private SolverMetrics.Snapshot previous; // Touched by the reporter thread, then by close() after it has stopped
+
+    MetricsReporter(SolverMetrics metrics, PrintStream out, long intervalMillis) {
+        this.metrics = metrics;
+        this.out = out;
+        this.intervalMillis = intervalMillis;
+        this.thread = new Thread(this::run, "metrics-reporter");
+        thread.setDaemon(true);
+    }
+
+    MetricsReporter start() {
+        thread.start();
+        return this;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Thread.sleep(intervalMillis);
+                report();
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        }
+    }
+
+    private void report() {
+        SolverMetrics.Snapshot now = metrics.snapshot();
+        out.println(now.toJson(previous));
+        previous = now;
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+}
@@ -0,0 +1,335 @@
+package cli;
+
+import solver.ConstraintBoard;
+import solver.PuzzleCorpus;
+import solver.PuzzleFormat;
+import solver.Solver;
+import solver.SolverMetrics;
+import solver.Strategy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Spreads a puzzle stream over a work-stealing {@link ForkJoinPool}.
+ *
+ * The reading thread fills chunks of puzzle lines (a fixed number of lines of any length,
+ * so board sizes can be mixed) and submits each one as a
+ * fork-join task that splits itself until ranges are small enough, so idle workers steal
+ * the rest of a slow chunk. A single writer thread drains finished chunks, either in input
+ * order (reassembling by sequence number) or in completion order. Chunks are recycled
+ * through a bounded free list, which also caps how much of the input is in memory at once.
+ * Each pool thread keeps its own board, solver and {@link SolverMetrics.Probe}, so solving
+ * allocates nothing per puzzle. A binary {@link PuzzleCorpus} goes through the same pipeline,
+ * except that a chunk is only an index range and each puzzle is loaded straight from the
+ * mapped file by the thread that solves it.
+ */
+public class ParallelBatchSolver {
+
+    private static final int CHUNK_PUZZLES = 512;
+    private static final int SPLIT_THRESHOLD = 16;
+    private static final int SUFFIX_ROOM = 16; // Output space per puzzle beyond its input line
+    private static final byte[] UNSOLVABLE = " unsolvable\n".getBytes();
+    private static final byte[] INVALID = " invalid\n".getBytes();
+    private static final byte SOLVED = 0;
+    private static final byte NO_SOLUTION = 1;
+    private static final byte BAD_INPUT = 2;
+
+    private final int threads;
+    private final boolean inputOrder;
+    private final ThreadLocal<Workspace> workspace;
+
+    public ParallelBatchSolver(int threads, boolean inputOrder, Strategy strategy) {
+        this(threads, inputOrder, strategy, new SolverMetrics());
+    }
+
+    public ParallelBatchSolver(int threads, boolean inputOrder, Strategy strategy, SolverMetrics metrics) {
+        this(threads, inputOrder, strategy::create, metrics);
+    }
+
+    /** Solves with a solver from {@code solvers} per pool thread, for solvers that wrap a strategy. */
+    public ParallelBatchSolver(int threads, boolean inputOrder, Supplier<Solver> solvers, SolverMetrics metrics) {
+        this.threads = threads;
+        this.inputOrder = inputOrder;
+        this.workspace = ThreadLocal.withInitial(() -> new Workspace(solvers.get(), metrics.probe()));
+    }
+
+    public HeadlessSolver.Totals run(PuzzleReader reader, OutputStream out) throws IOException {
+        return run(chunk -> chunk.fill(reader), out);
+    }
+
+    public HeadlessSolver.Totals run(PuzzleCorpus corpus, OutputStream out) throws IOException {
+        long[] next = {0}; // Only the reading thread fills chunks
+        return run(chunk -> {
+            boolean filled = chunk.fill(corpus, next[0]);
+            next[0] += chunk.count;
+            return filled;
+        }, out);
+    }
+
+    // Fills the next chunk of input; false once there is none left
+    private interface Input {
+        boolean fill(Chunk chunk) throws IOException;
+    }
+
+    private HeadlessSolver.Totals run(Input input, OutputStream out) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        int chunkCount = threads * 4;
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            free.add(new Chunk());
+        }
+        BlockingQueue<Chunk> finished = new LinkedBlockingQueue<>();
+        Writer writer = new Writer(out, free, finished);
+        Thread writerThread = new Thread(writer, "batch-writer");
+        writerThread.start();
+
+        try {
+            long seq = 0;
+            while (writer.error == null) {
+                Chunk chunk = free.take();
+                if (!input.fill(chunk)) {
+                    free.add(chunk);
+                    break;
+                }
+                chunk.seq = seq++;
+                pool.execute(new SolveRange(chunk, 0, chunk.count, finished));
+            }
+
+            // Every chunk is back on the free list once the writer has flushed the last one
+            for (int i = 0; i < chunkCount; i++) {
+                free.take();
+            }
+            finished.add(Chunk.END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while solving", e);
+        } finally {
+            pool.shutdownNow();
+            // Still running only if reading failed or was interrupted; it would wait for END forever
+            if (writerThread.isAlive()) writerThread.interrupt();
+        }
+        Throwable error = writer.error;
+        if (error instanceof IOException) throw (IOException) error;
+        if (error instanceof RuntimeException) throw (RuntimeException) error;
+        if (error instanceof Error) throw (Error) error;
+        return writer.totals;
+    }
+
+    private static class Workspace {
+        final ConstraintBoard[] boards = new ConstraintBoard[ConstraintBoard.MAX_BOX + 1];
+        final Solver solver;
+        final SolverMetrics.Probe probe;
+
+        Workspace(Solver solver, SolverMetrics.Probe probe) {
+            this.solver = solver;
+            this.probe = probe;
+        }
+    }
+
+    private static class Chunk {
+        static final Chunk END = new Chunk();
+
+        // Lines are stored back to back; the arrays grow if a chunk holds larger boards
+        byte[] input = new byte[CHUNK_PUZZLES * (PuzzleFormat.LINE_LENGTH + 1)];
+        final int[] inputStart = new int[CHUNK_PUZZLES + 1];
+        final int[] inputLength = new int[CHUNK_PUZZLES];
+        byte[] output = new byte[input.length + CHUNK_PUZZLES * SUFFIX_ROOM];
+        final int[] outputLength = new int[CHUNK_PUZZLES];
+        final byte[] status = new byte[CHUNK_PUZZLES];
+        final long[] nodes = new long[CHUNK_PUZZLES];
+        final byte[] line = new byte[PuzzleFormat.MAX_LINE_LENGTH + 1];
+        PuzzleCorpus corpus; // Set when the puzzles are corpus indexes rather than lines in input
+        volatile Throwable failure; // Thrown while solving the chunk, if anything was
+        long first;
+        long seq;
+        int count;
+
+        boolean fill(PuzzleReader reader) throws IOException {
+            corpus = null;
+            failure = null;
+            count = 0;
+            int used = 0;
+            int length;
+            while (count < CHUNK_PUZZLES && (length = reader.next(line)) != -1) {
+                int stored = Math.min(length, line.length);
+                if (used + stored > input.length) {
+                    input = Arrays.copyOf(input, Math.max(input.length * 2, used + stored));
+                }
+                System.arraycopy(line, 0, input, used, stored);
+                inputStart[count] = used;
+                inputLength[count++] = length;
+                used += stored;
+            }
+            inputStart[count] = used;
+            if (output.length < used + count * SUFFIX_ROOM) {
+                output = new byte[Math.max(output.length * 2, used + count * SUFFIX_ROOM)];
+            }
+            return count > 0;
+        }
+
+        boolean fill(PuzzleCorpus corpus, long first) {
+            this.corpus = corpus;
+            this.first = first;
+            failure = null;
+            count = (int) Math.min(CHUNK_PUZZLES, corpus.size() - first);
+            int cells = corpus.cellCount();
+            for (int i = 0; i <= count; i++) {
+                inputStart[i] = i * cells;
+                if (i < count) inputLength[i] = cells;
+            }
+            if (output.length < count * (cells + SUFFIX_ROOM)) {
+                output = new byte[Math.max(output.length * 2, count * (cells + SUFFIX_ROOM))];
+            }
+            return count > 0;
+        }
+
+        int outputStart(int i) {
+            return inputStart[i] + i * SUFFIX_ROOM;
+        }
+
+        void solve(int i, Workspace ws) {
+            int in = inputStart[i];
+            int out = outputStart(i);
+            int length = inputLength[i];
+            nodes[i] = 0;
+            ConstraintBoard board = HeadlessSolver.boardFor(ws.boards, length);
+            boolean loaded = corpus != null ? corpus.load(first + i, board)
+                    : board != null && PuzzleFormat.parse(input, in, board);
+            if (!loaded) {
+                outputLength[i] = echo(i, out, inputStart[i + 1] - in, INVALID);
+                status[i] = BAD_INPUT;
+            } else if (solveCounted(i, ws, board)) {
+                PuzzleFormat.format(board, output, out);
+                output[out + length] = '\n';
+                outputLength[i] = length + 1;
+                status[i] = SOLVED;
+            } else {
+                outputLength[i] = echo(i, out, length, UNSOLVABLE);
+                status[i] = NO_SOLUTION;
+            }
+        }
+
+        private boolean solveCounted(int i, Workspace ws, ConstraintBoard board) {
+            boolean solved = HeadlessSolver.solveProbed(ws.solver, board, ws.probe);
+            nodes[i] = ws.solver.nodes();
+            return solved;
+        }
+
+        // Writes puzzle i as it was given, followed by suffix
+        private int echo(int i, int out, int length, byte[] suffix) {
+            if (corpus != null) {
+                corpus.format(first + i, output, out);
+            } else {
+                System.arraycopy(input, inputStart[i], output, out, length);
+            }
+            System.arraycopy(suffix, 0, output, out + length, suffix.length);
+            return length + suffix.length;
+        }
+    }
+
+    private class SolveRange extends RecursiveAction {
+        private final Chunk chunk;
+        private final int from;
+        private final int to;
+        private final BlockingQueue<Chunk> finished;
+
+        SolveRange(Chunk chunk, int from, int to, BlockingQueue<Chunk> finished) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+            this.finished = finished;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (to - from > SPLIT_THRESHOLD) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new SolveRange(chunk, from, mid, null), new SolveRange(chunk, mid, to, null));
+                } else {
+                    Workspace ws = workspace.get();
+                    for (int i = from; i < to; i++) {
+                        chunk.solve(i, ws);
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                if (finished == null) throw e; // invokeAll passes it up to the root task
+                chunk.failure = e;
+            } finally {
+                // Only the root task of a chunk hands it to the writer
+                if (finished != null) finished.add(chunk);
+            }
+        }
+    }
+
+    private class Writer implements Runnable {
+        private final OutputStream out;
+        private final BlockingQueue<Chunk> free;
+        private final BlockingQueue<Chunk> finished;
+        private final Map<Long, Chunk> pending = new HashMap<>();
+        private final HeadlessSolver.Totals totals = new HeadlessSolver.Totals();
+        private long nextSeq;
+        volatile Throwable error; // The first failure; later chunks are only recycled
+
+        Writer(OutputStream out, BlockingQueue<Chunk> free, BlockingQueue<Chunk> finished) {
+            this.out = out;
+            this.free = free;
+            this.finished = finished;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Chunk chunk;
+                while ((chunk = finished.take()) != Chunk.END) {
+                    if (!inputOrder) {
+                        write(chunk);
+                        continue;
+                    }
+                    pending.put(chunk.seq, chunk);
+                    while ((chunk = pending.remove(nextSeq)) != null) {
+                        write(chunk);
+                        nextSeq++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Always returns the chunk to the free list, or the reading thread would wait for it forever
+        private void write(Chunk chunk) {
+            try {
+                if (error == null && chunk.failure != null) error = chunk.failure;
+                if (error == null) {
+                    for (int i = 0; i < chunk.count; i++) {
+                        out.write(chunk.output, chunk.outputStart(i), chunk.outputLength[i]);
+                        count(chunk, i);
+                    }
+                }
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                free.add(chunk);
+            }
+        }
+
+        private void count(Chunk chunk, int i) {
+            totals.puzzles++;
+            totals.nodes += chunk.nodes[i];
+            if (chunk.status[i] == NO_SOLUTION) totals.unsolvable++;
+            else if (chunk.status[i] == BAD_INPUT) totals.invalid++;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads puzzle lines straight out of a byte buffer, one line at a time, so an input of any
+ * size is streamed without building a String per line or holding the file in memory.
+ * Blank lines and lines starting with '#' are skipped. A space or tab after the puzzle ends
+ * it, so a line may carry a note such as a difficulty grade after the puzzle.
+ */
+public class PuzzleReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long lineNumber;
+
+    public PuzzleReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Copies the next non-blank line into {@code line} (truncating it if it is longer than the array)
+     * and returns its full length, or -1 at end of input. Whatever follows the first space or tab
+     * after the start of the line is dropped, as is a trailing '\r'.
+     */
+    public int next(byte[] line) throws IOException {
+        while (true) {
+            int length = 0;
+            boolean sawAny = false;
+            boolean ended = false;
+            int b;
+            while ((b = read()) != -1 && b != '\n') {
+                sawAny = true;
+                if (length > 0 && (b == ' ' || b == '\t')) ended = true;
+                if (ended) continue;
+                if (length < line.length) line[length] = (byte) b;
+                length++;
+            }
+            if (b == -1 && !sawAny) return -1;
+            lineNumber++;
+
+            while (length > 0 && length <= line.length && isTrailingSpace(line[length - 1])) length--;
+            if (length == 0 || line[0] == '#') continue;
+            return length;
+        }
+    }
+
+    /** One-based number of the line last returned by {@link #next}. */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = in.read(buffer, 0, BUFFER_SIZE);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    private static boolean isTrailingSpace(byte b) {
+        return b == '\r' || b == ' ' || b == '\t';
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,167 @@
+package server;
+
+import solver.Strategy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Drives a {@link SolveServer} with a fixed number of concurrent clients, each sending its next
+ * request as soon as the previous one is answered, and reports throughput and the latency
+ * percentiles of the answered requests. Every request carries {@code --batch} puzzles taken in
+ * turn from the input file; 503 answers (the server's back-pressure) are counted separately.
+ * Without {@code --url} the test starts a server of its own on a free local port.
+ *
+ * Usage: java -cp bin server.LoadTest puzzles.txt [--url http://127.0.0.1:8080/solve]
+ *                                     [-c clients] [-n requests] [--batch N] [--strategy id]
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String inputPath = null;
+        String url = null;
+        int clients = 16;
+        int requests = 10_000;
+        int batch = 1;
+        String strategy = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[++i];
+                    break;
+                case "-c":
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "-n":
+                case "--requests":
+                    requests = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[++i]);
+                    break;
+                case "--strategy":
+                    strategy = args[++i];
+                    break;
+                default:
+                    inputPath = args[i];
+            }
+        }
+        if (inputPath == null) usage();
+
+        List<String> puzzles = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(inputPath))) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) puzzles.add(line);
+        }
+        if (puzzles.isEmpty()) {
+            System.err.println("No puzzles in " + inputPath);
+            usage();
+        }
+        String[] bodies = new String[Math.max(1, puzzles.size() / batch)];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = String.join("\n", puzzles.subList(i * batch % puzzles.size(),
+                    Math.min(puzzles.size(), i * batch % puzzles.size() + batch)));
+        }
+
+        SolveServer ownServer = null;
+        if (url == null) {
+            ownServer = new SolveServer(Runtime.getRuntime().availableProcessors(), 100, 5_000,
+                    Strategy.PROPAGATION, null);
+            url = "http://127.0.0.1:" + ownServer.start(0).getPort() + "/solve";
+        }
+        URI uri = URI.create(strategy == null ? url : url + "?strategy=" + strategy);
+
+        ExecutorService executor = SolveServer.requestExecutor();
+        HttpClient client = HttpClient.newBuilder().executor(executor).build();
+        AtomicLongArray statuses = new AtomicLongArray(600);
+
+        // A short warm-up so the first requests don't measure class loading and compilation
+        for (int i = 0; i < Math.min(200, bodies.length); i++) {
+            send(client, uri, bodies[i]);
+        }
+
+        long start = System.nanoTime();
+        long[] sorted = drive(executor, client, uri, bodies, clients, requests, statuses);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        if (ownServer != null) ownServer.stop(0);
+
+        int ok = sorted.length;
+        System.out.printf("%d requests of %d puzzles, %d clients, %.3f s%n", requests, batch, clients, seconds);
+        System.out.printf("throughput: %.0f requests/s, %.0f puzzles/s%n", ok / seconds, (double) ok * batch / seconds);
+        if (ok > 0) {
+            System.out.printf("latency ms: p50 %.3f  p90 %.3f  p99 %.3f  max %.3f%n", percentile(sorted, 50),
+                    percentile(sorted, 90), percentile(sorted, 99), sorted[ok - 1] / 1e6);
+        }
+        StringBuilder codes = new StringBuilder();
+        for (int status = 0; status < statuses.length(); status++) {
+            if (statuses.get(status) > 0) codes.append(' ').append(status).append(": ").append(statuses.get(status));
+        }
+        System.out.println("status:" + codes);
+    }
+
+    // Sends requests from clients loops at once; returns the latencies of the answered (200) ones, sorted
+    private static void usage() {
+        System.err.println("Usage: java -cp bin server.LoadTest puzzles.txt [--url URL] [-c clients] [-n requests]");
+        System.err.println("                                    [--batch N] [--strategy id]");
+        System.exit(2);
+    }
+
+    private static long[] drive(ExecutorService executor, HttpClient client, URI uri, String[] bodies, int clients,
+                                int requests, AtomicLongArray statuses) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger answered = new AtomicInteger();
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            running.add(executor.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long sent = System.nanoTime();
+                    int status = send(client, uri, bodies[i % bodies.length]);
+                    long latency = System.nanoTime() - sent;
+                    statuses.incrementAndGet(Math.min(status, 599));
+                    if (status == 200) latencies[answered.getAndIncrement()] = latency;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        long[] sorted = Arrays.copyOf(latencies, answered.get());
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Status code of the answer, or 0 if the request failed outright
+    private static int send(HttpClient client, URI uri, String body) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private static double percentile(long[] sorted, double percent) {
+        int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,361 @@
+package server;
+
+import cli.PuzzleReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import solver.CachingSolver;
+import solver.ConstraintBoard;
+import solver.PuzzleFormat;
+import solver.SolutionCache;
+import solver.Solver;
+import solver.SolverMetrics;
+import solver.Strategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Solves puzzles over HTTP for other local processes. The server listens on the loopback
+ * interface only and handles every request on its own virtual thread (a cached pool of platform
+ * threads before Java 21). The searches themselves run on a fixed pool of platform threads:
+ * a solve never blocks, and a virtual thread busy with one would hold its carrier thread until
+ * it finished, stalling the requests waiting behind it.
+ *
+ * {@code POST /solve} takes one puzzle or a batch, one per line in {@link PuzzleFormat}, and
+ * answers with a JSON object holding one result per puzzle: its status ({@code solved},
+ * {@code unsolvable}, {@code invalid} or {@code timeout}), the solution and the solver's
+ * counters. Query parameters pick the {@code strategy} and a {@code timeout_ms} for the whole
+ * request; the deadline is the solver's cancellation check, so a slow search stops within a
+ * few hundred nodes of it and the puzzles after it are not started. {@code GET /metrics}
+ * returns the {@link SolverMetrics} of all requests so far.
+ *
+ * Back-pressure: at most {@code --max-concurrent} requests solve at once, one per pool thread,
+ * and a request that cannot start within {@code --queue-wait} milliseconds gets 503 with
+ * Retry-After instead of queueing without bound. Bodies above 1 MiB or batches above 10,000 puzzles get 413.
+ *
+ * Usage: java -cp bin server.SolveServer [--port P] [--max-concurrent N] [--queue-wait ms]
+ *                                        [--timeout ms] [--strategy id] [--cache entries]
+ */
+public class SolveServer {
+
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int MAX_BATCH = 10_000;
+    private static final long MAX_TIMEOUT_MS = 60_000;
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final long queueWaitMillis;
+    private final long defaultTimeoutMillis;
+    private final Strategy defaultStrategy;
+    private final SolutionCache cache;
+    private final SolverMetrics metrics = new SolverMetrics();
+    private final ExecutorService solvePool;
+    // Each pool thread keeps one solver per strategy
+    private final ThreadLocal<Solver[]> solvers = ThreadLocal.withInitial(() -> new Solver[Strategy.values().length]);
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public SolveServer(int maxConcurrent, long queueWaitMillis, long defaultTimeoutMillis, Strategy defaultStrategy,
+                       SolutionCache cache) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.queueWaitMillis = queueWaitMillis;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.defaultStrategy = defaultStrategy;
+        this.cache = cache;
+        AtomicInteger threads = new AtomicInteger();
+        this.solvePool = Executors.newFixedThreadPool(maxConcurrent, task -> {
+            Thread thread = new Thread(task, "solver-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Starts listening on the loopback address; port 0 picks a free one. Returns the bound address. */
+    public InetSocketAddress start(int port) throws IOException {
+        // Without TCP_NODELAY small responses sit out the client's delayed ACK, about 40 ms each
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/metrics", this::handleMetrics);
+        server.start();
+        return server.getAddress();
+    }
+
+    /** Stops accepting requests, giving running ones up to {@code delaySeconds} to finish. */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        solvePool.shutdown();
+    }
+
+    public SolverMetrics metrics() {
+        return metrics;
+    }
+
+    // A virtual thread per task on Java 21 and later; looked up reflectively so the build still targets 17
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                respond(exchange, 405, "{\"error\":\"use GET\"}");
+                return;
+            }
+            respond(exchange, 200, metrics.snapshot().toJson(null));
+        }
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            long start = System.nanoTime();
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, "{\"error\":\"use POST with one puzzle per line\"}");
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            Strategy strategy;
+            long timeoutMillis;
+            try {
+                strategy = query.containsKey("strategy") ? Strategy.fromId(query.get("strategy")) : defaultStrategy;
+                timeoutMillis = query.containsKey("timeout_ms")
+                        ? Long.parseLong(query.get("timeout_ms")) : defaultTimeoutMillis;
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, "{\"error\":" + quote(e.getMessage()) + "}");
+                return;
+            }
+            timeoutMillis = Math.max(1, Math.min(timeoutMillis, MAX_TIMEOUT_MS));
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, "{\"error\":\"body larger than " + MAX_BODY_BYTES + " bytes\"}");
+                return;
+            }
+            // Rejected before admission, so an oversized batch never holds a permit or a pool thread
+            if (countPuzzles(body, MAX_BATCH + 1) > MAX_BATCH) {
+                respond(exchange, 413, "{\"error\":\"more than " + MAX_BATCH + " puzzles\"}");
+                return;
+            }
+
+            // Waiting for a permit counts against the request's own deadline too
+            long wait = Math.min(queueWaitMillis, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            boolean admitted;
+            try {
+                admitted = permits.tryAcquire(Math.max(0, wait), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!admitted) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "{\"error\":\"busy, " + maxConcurrent + " requests already solving\"}");
+                return;
+            }
+            String response;
+            try {
+                Future<String> solving = solvePool.submit(
+                        () -> solveBatch(body, strategy, () -> System.nanoTime() > deadline, start));
+                response = solving.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                respond(exchange, 500, "{\"error\":" + quote(String.valueOf(e.getCause())) + "}");
+                return;
+            } finally {
+                permits.release();
+            }
+            respond(exchange, 200, response);
+        }
+    }
+
+    // The JSON answer for every puzzle in body
+    private String solveBatch(byte[] body, Strategy strategy, BooleanSupplier expired, long start) throws IOException {
+        Solver[] mine = solvers.get();
+        if (mine[strategy.ordinal()] == null) {
+            mine[strategy.ordinal()] = cache == null ? strategy.create() : new CachingSolver(strategy.create(), cache);
+        }
+        Solver solver = mine[strategy.ordinal()];
+        SolverMetrics.Probe probe = metrics.probe();
+
+        StringBuilder results = new StringBuilder();
+        int puzzles = 0;
+        int solved = 0;
+        try (PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(body))) {
+            ConstraintBoard[] boards = new ConstraintBoard[ConstraintBoard.MAX_BOX + 1];
+            byte[] line = new byte[PuzzleFormat.MAX_LINE_LENGTH + 1];
+            int length;
+            while ((length = reader.next(line)) != -1) {
+                if (++puzzles > 1) results.append(',');
+                int box = PuzzleFormat.boxForLength(length);
+                if (box > 0 && boards[box] == null) boards[box] = new ConstraintBoard(box);
+                ConstraintBoard board = box > 0 ? boards[box] : null;
+                if (board == null || !PuzzleFormat.parse(line, 0, board)) {
+                    results.append("{\"status\":\"invalid\",\"line\":").append(reader.lineNumber()).append('}');
+                    continue;
+                }
+                if (expired.getAsBoolean()) {
+                    results.append("{\"status\":\"timeout\"}");
+                    continue;
+                }
+
+                long solveStart = System.nanoTime();
+                probe.begin(solver);
+                boolean isSolved = solver.solve(board, expired);
+                probe.end(isSolved);
+                double micros = (System.nanoTime() - solveStart) / 1e3;
+                String status = isSolved ? "solved" : solver.wasCancelled() ? "timeout" : "unsolvable";
+                results.append("{\"status\":\"").append(status).append('"');
+                if (isSolved) {
+                    solved++;
+                    results.append(",\"solution\":\"").append(PuzzleFormat.format(board)).append('"');
+                }
+                results.append(",\"nodes\":").append(solver.nodes())
+                        .append(",\"backtracks\":").append(solver.backtracks())
+                        .append(",\"max_depth\":").append(solver.maxDepth())
+                        .append(",\"propagations\":").append(solver.propagations())
+                        .append(String.format(Locale.ROOT, ",\"us\":%.1f}", micros));
+            }
+        }
+        return String.format(Locale.ROOT, "{\"strategy\":\"%s\",\"puzzles\":%d,\"solved\":%d,\"elapsed_ms\":%.3f,\"results\":[%s]}",
+                strategy.id(), puzzles, solved, (System.nanoTime() - start) / 1e6, results);
+    }
+
+    // Puzzle lines in body as PuzzleReader sees them, counting no further than limit
+    private static int countPuzzles(byte[] body, int limit) throws IOException {
+        int puzzles = 0;
+        try (PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(body))) {
+            byte[] line = new byte[PuzzleFormat.MAX_LINE_LENGTH + 1];
+            while (puzzles < limit && reader.next(line) != -1) {
+                puzzles++;
+            }
+        }
+        return puzzles;
+    }
+
+    // The whole body, or null if it is larger than MAX_BODY_BYTES
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int maxConcurrent = Runtime.getRuntime().availableProcessors();
+        long queueWait = 100;
+        long timeout = 5_000;
+        Strategy strategy = Strategy.PROPAGATION;
+        int cacheEntries = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-concurrent":
+                    maxConcurrent = Integer.parseInt(args[++i]);
+                    break;
+                case "--queue-wait":
+                    queueWait = Long.parseLong(args[++i]);
+                    break;
+                case "--timeout":
+                    timeout = Long.parseLong(args[++i]);
+                    break;
+                case "--strategy":
+                    try {
+                        strategy = Strategy.fromId(args[++i]);
+                    } catch (IllegalArgumentException e) {
+                        System.err.println(e.getMessage());
+                        printUsage();
+                        System.exit(2);
+                    }
+                    break;
+                case "--cache":
+                    cacheEntries = Integer.parseInt(args[++i]);
+                    break;
+                case "-h":
+                case "--help":
+                    printUsage();
+                    return;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    printUsage();
+                    System.exit(2);
+            }
+        }
+        if (maxConcurrent < 1) {
+            System.err.println("--max-concurrent must be at least 1");
+            System.exit(2);
+        }
+
+        SolveServer server = new SolveServer(maxConcurrent, queueWait, timeout, strategy,
+                cacheEntries > 0 ? new SolutionCache(cacheEntries) : null);
+        InetSocketAddress address = server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "server-shutdown"));
+        System.err.printf("Solving on http://%s:%d/solve (%s, %d at a time)%n",
+                address.getHostString(), address.getPort(), strategy.id(), maxConcurrent);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java -cp bin server.SolveServer [options]");
+        System.err.println("  Serves POST /solve (one puzzle per line) and GET /metrics on 127.0.0.1.");
+        System.err.println("  --port P                 port to listen on (default 8080, 0 for any free port)");
+        System.err.println("  --max-concurrent N       requests solving at once (default: number of cores)");
+        System.err.println("  --queue-wait MS          how long a request may wait for a slot before 503 (default 100)");
+        System.err.println("  --timeout MS             default per-request time limit (default 5000, at most 60000)");
+        System.err.println("  --strategy NAME          default strategy: naive, mrv, propagation (default) or dlx");
+        System.err.println("  --cache ENTRIES          answer repeated and symmetric puzzles from a solution cache");
+    }
+}
@@ -0,0 +1,145 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The baseline strategy, and the search the GUI worker has always run: cells in row-major
+ * order, digits in ascending order. The search is iterative: the current path lives in two
+ * preallocated arrays (the cell at each depth and the digits still untried there), so solving
+ * allocates nothing per node and pre-filled cells cost no stack frames. The arrays grow
+ * the first time a larger board comes along.
+ *
+ * An optional {@link SolveListener} sees the same step sequence the recursive worker used
+ * to publish: a placement for every digit tried, and a removal when that digit's subtree fails.
+ * Not thread-safe; use one instance per thread.
+ */
+public class BacktrackingSolver implements Solver {
+
+    // How many nodes to search between polls of the cancellation check
+    static final int CANCEL_POLL_MASK = 0xFF;
+
+    private int[] trailCell = new int[0];
+    private long[] trailUntried = new long[0];
+    private long nodes;
+    private long backtracks;
+    private int maxDepth;
+    private boolean cancelled;
+
+    @Override
+    public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        cancelled = false;
+        int cells = board.cellCount();
+        if (trailCell.length < cells) {
+            trailCell = new int[cells];
+            trailUntried = new long[cells];
+        }
+        int[] trailCell = this.trailCell;
+        long[] trailUntried = this.trailUntried;
+
+        int cell = nextEmpty(board, 0);
+        if (cell == cells) return true;
+        int depth = 0;
+        Arrays.fill(trailCell, 0, Math.min(cells + 1, trailCell.length), -1); // Levels not reached yet, see publishCounts()
+        trailCell[0] = cell;
+        trailUntried[0] = board.candidates(cell);
+
+        while (depth >= 0) {
+            cell = trailCell[depth];
+
+            // Coming back up to this level means the digit placed here led nowhere
+            int placed = board.get(cell);
+            if (placed != 0) {
+                board.remove(cell);
+                if (listener != null) {
+                    publishCounts(depth);
+                    if (!listener.removed(cell, placed)) {
+                        cancelled = true;
+                        break;
+                    }
+                }
+            }
+
+            long untried = trailUntried[depth];
+            if (untried == 0) {
+                depth--;
+                continue;
+            }
+            trailUntried[depth] = untried & (untried - 1);
+            int num = Long.numberOfTrailingZeros(untried) + 1;
+
+            if ((++nodes & CANCEL_POLL_MASK) == 0) {
+                publishCounts(depth + 1);
+                if (cancelCheck.getAsBoolean()) {
+                    cancelled = true;
+                    break;
+                }
+            }
+            board.place(cell, num);
+            if (listener != null) {
+                publishCounts(depth + 1);
+                if (!listener.placed(cell, num)) {
+                    cancelled = true;
+                    break;
+                }
+            }
+
+            int next = nextEmpty(board, cell + 1);
+            if (next == cells) {
+                publishCounts(depth + 1);
+                return true;
+            }
+            depth++;
+            trailCell[depth] = next;
+            trailUntried[depth] = board.candidates(next);
+        }
+
+        publishCounts(Math.max(depth, 0));
+        if (cancelled) {
+            // Put the board back to its givens
+            for (; depth >= 0; depth--) {
+                if (board.get(trailCell[depth]) != 0) board.remove(trailCell[depth]);
+            }
+        }
+        return false;
+    }
+
+    static int nextEmpty(ConstraintBoard board, int cell) {
+        int cells = board.cellCount();
+        while (cell < cells && board.get(cell) != 0) cell++;
+        return cell;
+    }
+
+    /**
+     * Brings the counters other than nodes up to date, with {@code pathDigits} digits on the
+     * search path. Every digit tried is either still on the path or was taken back, and the
+     * deepest level reached is the last trail slot ever written, so neither is counted per node.
+     */
+    private void publishCounts(int pathDigits) {
+        backtracks = nodes - pathDigits;
+        while (maxDepth < trailCell.length && trailCell[maxDepth] >= 0) maxDepth++;
+    }
+
+    @Override
+    public long nodes() {
+        return nodes;
+    }
+
+    @Override
+    public long backtracks() {
+        return backtracks;
+    }
+
+    @Override
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,124 @@
+package solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Answers repeated puzzles, and their symmetric variants, from a {@link SolutionCache} and
+ * hands everything else to another solver. A hit maps the cached canonical solution back onto
+ * the board without any search and counts as zero nodes; a miss is solved normally and its
+ * result stored. Solves with a listener always go to the other solver, since there are no steps
+ * to report for a hit. Not thread-safe, like the solver it wraps; the cache can be shared.
+ *
+ * A hit saves at most one solve, so a key that takes longer to compute than the solve it
+ * could save is a loss whatever the hit rate. The time spent on keys and on solving misses is
+ * measured per board size, and once {@value #SAMPLE_MISSES} misses show keys costing more than
+ * solves, puzzles of that size skip the cache and go straight to the other solver.
+ */
+public class CachingSolver implements Solver {
+
+    private final Solver solver;
+    private final SolutionCache cache;
+    static final int SAMPLE_MISSES = 64;
+
+    private final Canonicalizer[] canonicalizers = new Canonicalizer[ConstraintBoard.MAX_BOX + 1];
+    // Per board size: time spent on keys and on solving misses, until the size is judged
+    private final long[] keyNanos = new long[ConstraintBoard.MAX_BOX + 1];
+    private final long[] lookups = new long[ConstraintBoard.MAX_BOX + 1];
+    private final long[] missNanos = new long[ConstraintBoard.MAX_BOX + 1];
+    private final int[] misses = new int[ConstraintBoard.MAX_BOX + 1];
+    private final boolean[] bypassed = new boolean[ConstraintBoard.MAX_BOX + 1];
+    private byte[] solution = new byte[0];
+    private boolean hit;
+
+    public CachingSolver(Solver solver, SolutionCache cache) {
+        this.solver = solver;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+        hit = false;
+        if (listener != null) return solver.solve(board, listener, cancelCheck);
+
+        int box = board.box();
+        if (bypassed[box]) {
+            cache.recordBypass();
+            return solver.solve(board, null, cancelCheck);
+        }
+
+        long start = System.nanoTime();
+        if (canonicalizers[box] == null) canonicalizers[box] = new Canonicalizer(box);
+        Canonicalizer canonicalizer = canonicalizers[box];
+        byte[] key = canonicalizer.canonicalize(board);
+        byte[] cached = cache.get(key);
+        long looked = System.nanoTime();
+        cache.recordLookup(looked - start);
+        keyNanos[box] += looked - start;
+        lookups[box]++;
+        if (cached != null) {
+            hit = true;
+            if (cached.length == 0) return false;
+            canonicalizer.fromCanonical(cached, board);
+            return true;
+        }
+
+        boolean solved = solver.solve(board, null, cancelCheck);
+        if (solver.wasCancelled()) return false;
+        if (misses[box] < SAMPLE_MISSES) {
+            missNanos[box] += System.nanoTime() - looked;
+            if (++misses[box] == SAMPLE_MISSES) {
+                // Mean key time above mean solve time, compared without dividing
+                bypassed[box] = keyNanos[box] * SAMPLE_MISSES > missNanos[box] * lookups[box];
+            }
+        }
+        try {
+            if (solved) {
+                if (solution.length < key.length) solution = new byte[key.length];
+                canonicalizer.toCanonical(board, solution);
+                cache.put(key, solution);
+            } else {
+                cache.put(key, null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the solution cache", e);
+        }
+        return solved;
+    }
+
+    /** Whether puzzles of this box size skip the cache because their keys cost more than solving them. */
+    public boolean isBypassed(int box) {
+        return bypassed[box];
+    }
+
+    /** Whether the last solve was answered from the cache. */
+    public boolean wasHit() {
+        return hit;
+    }
+
+    @Override
+    public long nodes() {
+        return hit ? 0 : solver.nodes();
+    }
+
+    @Override
+    public long backtracks() {
+        return hit ? 0 : solver.backtracks();
+    }
+
+    @Override
+    public int maxDepth() {
+        return hit ? 0 : solver.maxDepth();
+    }
+
+    @Override
+    public long propagations() {
+        return hit ? 0 : solver.propagations();
+    }
+
+    @Override
+    public boolean wasCancelled() {
+        return !hit && solver.wasCancelled();
+    }
+}
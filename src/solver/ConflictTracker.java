@@ -0,0 +1,108 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * The digits of a board being edited, with a count of every digit in every row, column and
+ * box. Unlike {@link ConstraintBoard} it accepts repeated digits, so it can say which cells
+ * conflict while the user is still typing. Setting a cell updates three counters. Only when a
+ * count crosses between one and two are the other cells of that unit rescanned, since their
+ * conflict state changes too. The cells whose state may have changed are left in
+ * {@link #changed()} for the caller to repaint.
+ */
+public class ConflictTracker {
+
+    private final Geometry geometry;
+    private final int size;
+    private final int[] cells;
+    private final int[] counts; // Per unit, the number of cells holding each digit: unit * (size + 1) + digit
+    private final int[] changed;
+    private int changedCount;
+    private int repeats; // Units and digits with a count above one
+
+    public ConflictTracker(int box) {
+        this.geometry = Geometry.of(box);
+        this.size = geometry.size;
+        this.cells = new int[geometry.cells];
+        this.counts = new int[3 * size * (size + 1)];
+        this.changed = new int[7]; // The cell, plus one per unit for the old and for the new digit
+    }
+
+    public int box() {
+        return geometry.box;
+    }
+
+    public int cellCount() {
+        return cells.length;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * Puts {@code num} (0 to clear) into {@code cell}. Returns how many cells at the start of
+     * {@link #changed()} may have started or stopped conflicting, {@code cell} included.
+     */
+    public int set(int cell, int num) {
+        changedCount = 0;
+        changed[changedCount++] = cell;
+        int old = cells[cell];
+        if (old == num) return changedCount;
+        cells[cell] = num;
+        int units = geometry.unitsOf[cell];
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int unit = (units >>> shift) & 0xFF;
+            if (old != 0 && --counts[unit * (size + 1) + old] == 1) {
+                repeats--;
+                addUnit(unit, old); // The one cell left with old no longer conflicts here
+            }
+            if (num != 0 && ++counts[unit * (size + 1) + num] == 2) {
+                repeats++;
+                addUnit(unit, num); // The cell that already had num now conflicts too
+            }
+        }
+        return changedCount;
+    }
+
+    private void addUnit(int unit, int num) {
+        for (int other : geometry.units[unit]) {
+            if (cells[other] == num && other != changed[0]) {
+                changed[changedCount++] = other;
+                return; // At most one other cell crosses the threshold in this unit
+            }
+        }
+    }
+
+    /** Cells filled in by the last {@link #set}; see its return value. Reused by the next call. */
+    public int[] changed() {
+        return changed;
+    }
+
+    /** True if the digit in {@code cell} is repeated in its row, column or box. */
+    public boolean isConflicting(int cell) {
+        int num = cells[cell];
+        if (num == 0) return false;
+        int units = geometry.unitsOf[cell];
+        return counts[(units & 0xFF) * (size + 1) + num] > 1
+                || counts[((units >>> 8) & 0xFF) * (size + 1) + num] > 1
+                || counts[(units >>> 16) * (size + 1) + num] > 1;
+    }
+
+    public boolean hasConflicts() {
+        return repeats > 0;
+    }
+
+    /** Copies the digits onto {@code board}, an empty board of the same shape. There must be no conflicts. */
+    public void copyTo(ConstraintBoard board) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] != 0) board.place(cell, cells[cell]);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(cells, 0);
+        Arrays.fill(counts, 0);
+        repeats = 0;
+    }
+}
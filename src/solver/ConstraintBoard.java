@@ -0,0 +1,221 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * Sudoku board that keeps per-row, per-column and per-box digit bitmasks up to date
+ * as digits are placed and removed, so validity checks and candidate listing are
+ * single bit operations instead of rescans of the grid.
+ *
+ * A board is {@code size x size} with {@code box x box} boxes, {@code size = box * box}: 9x9 by
+ * default, and anything from 4x4 to 64x64. Cells are addressed either by (row, col) or by a
+ * flat index {@code row * size + col}. Digit {@code num} is stored in a {@code long} mask as
+ * bit {@code num - 1}.
+ */
+public class ConstraintBoard {
+
+    public static final int DEFAULT_BOX = 3;
+    public static final int MIN_BOX = 2;
+    public static final int MAX_BOX = 8;
+
+    private final Geometry geometry;
+    private final int size;
+    private final long allDigits;
+    private final int[] unitsOf; // Shared table: each cell's row, column and box unit, packed
+    private final int[] cells;
+    private final long[] used; // Digits placed in each unit: rows, then columns, then boxes
+    private int filled;
+
+    /** An empty 9x9 board. */
+    public ConstraintBoard() {
+        this(DEFAULT_BOX);
+    }
+
+    /** An empty board of {@code box * box} rows and columns. */
+    public ConstraintBoard(int box) {
+        geometry = Geometry.of(box);
+        size = geometry.size;
+        allDigits = geometry.allDigits;
+        unitsOf = geometry.unitsOf;
+        cells = new int[geometry.cells];
+        used = new long[3 * size];
+    }
+
+    /** A board shaped and filled like {@code grid}, which must be square with a square side. */
+    public ConstraintBoard(int[][] grid) {
+        this(boxForSize(grid.length));
+        load(grid);
+    }
+
+    /** The box size whose boards are {@code size} cells wide. */
+    public static int boxForSize(int size) {
+        int box = (int) Math.round(Math.sqrt(size));
+        if (box * box != size || box < MIN_BOX || box > MAX_BOX) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        return box;
+    }
+
+    /**
+     * Replaces the board contents with {@code grid} (0 = empty).
+     * Returns false if two givens already conflict; the board is still loaded in that case.
+     */
+    public boolean load(int[][] grid) {
+        clear();
+        boolean consistent = true;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int num = grid[row][col];
+                if (num == 0) continue;
+                if (!isSafe(row, col, num)) consistent = false;
+                place(row, col, num);
+            }
+        }
+        return consistent;
+    }
+
+    public void clear() {
+        Arrays.fill(cells, 0);
+        Arrays.fill(used, 0);
+        filled = 0;
+    }
+
+    /** Copies the contents of a board of the same shape. */
+    public void copyFrom(ConstraintBoard other) {
+        if (other.geometry != geometry) {
+            throw new IllegalArgumentException("Cannot copy a " + other.size + "x" + other.size
+                    + " board into a " + size + "x" + size + " one");
+        }
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+        System.arraycopy(other.used, 0, used, 0, used.length);
+        filled = other.filled;
+    }
+
+    public void copyTo(int[][] grid) {
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(cells, row * size, grid[row], 0, size);
+        }
+    }
+
+    public int[][] toGrid() {
+        int[][] grid = new int[size][size];
+        copyTo(grid);
+        return grid;
+    }
+
+    public int box() {
+        return geometry.box;
+    }
+
+    /** Rows, columns and digits on this board. */
+    public int size() {
+        return size;
+    }
+
+    public int cellCount() {
+        return cells.length;
+    }
+
+    /** Mask with one bit for every digit 1..size. */
+    public long allDigits() {
+        return allDigits;
+    }
+
+    public int get(int row, int col) {
+        return cells[row * size + col];
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public boolean isSafe(int row, int col, int num) {
+        return (candidates(row * size + col) & (1L << (num - 1))) != 0;
+    }
+
+    /** Bitmask of digits that could go into {@code cell} without breaking a constraint. */
+    public long candidates(int cell) {
+        int units = unitsOf[cell];
+        return ~(used[units & 0xFF] | used[(units >>> 8) & 0xFF] | used[units >>> 16]) & allDigits;
+    }
+
+    public void place(int row, int col, int num) {
+        place(row * size + col, num);
+    }
+
+    public void place(int cell, int num) {
+        long bit = 1L << (num - 1);
+        int units = unitsOf[cell];
+        cells[cell] = num;
+        used[units & 0xFF] |= bit;
+        used[(units >>> 8) & 0xFF] |= bit;
+        used[units >>> 16] |= bit;
+        filled++;
+    }
+
+    public void remove(int row, int col) {
+        remove(row * size + col);
+    }
+
+    /** Undoes a {@link #place}; the cell must currently hold a digit. */
+    public void remove(int cell) {
+        long bit = ~(1L << (cells[cell] - 1));
+        int units = unitsOf[cell];
+        cells[cell] = 0;
+        used[units & 0xFF] &= bit;
+        used[(units >>> 8) & 0xFF] &= bit;
+        used[units >>> 16] &= bit;
+        filled--;
+    }
+
+    /** Empty cell with the fewest candidates (first one on ties), or -1 if the board is full. */
+    public int mostConstrainedCell() {
+        // Read into locals once: this scan is the inner loop of every MRV-style strategy
+        int[] cells = this.cells;
+        int[] unitsOf = this.unitsOf;
+        long[] used = this.used;
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] != 0) continue;
+            int units = unitsOf[cell];
+            int count = Long.bitCount(~(used[units & 0xFF] | used[(units >>> 8) & 0xFF] | used[units >>> 16]) & allDigits);
+            if (count < bestCount) {
+                best = cell;
+                bestCount = count;
+                if (count <= 1) break;
+            }
+        }
+        return best;
+    }
+
+    /** The 3 * size units (rows, then columns, then boxes), each as its cell indexes. Shared; do not modify. */
+    int[][] units() {
+        return geometry.units;
+    }
+
+    /** Digits already placed in {@code unit} (an index into {@link #units()}). */
+    long usedIn(int unit) {
+        return used[unit];
+    }
+
+    public boolean isComplete() {
+        return filled == cells.length;
+    }
+
+    public int filledCount() {
+        return filled;
+    }
+
+    public int rowOf(int cell) {
+        return geometry.rowOf[cell];
+    }
+
+    public int colOf(int cell) {
+        return geometry.colOf[cell];
+    }
+
+    public int boxOf(int cell) {
+        return geometry.boxOf[cell];
+    }
+}
@@ -0,0 +1,86 @@
+package solver;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a binary puzzle corpus (see {@link PackedFormat}) for boards of one size, appending
+ * puzzles through a buffered stream and filling in the count when closed. A corpus that was
+ * never closed reads back as empty.
+ */
+public class CorpusWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final int box;
+    private final byte[] record;
+    private long count;
+
+    /** Creates (or overwrites) {@code path} for puzzles of {@code box}. */
+    public CorpusWriter(Path path, int box) throws IOException {
+        if (box < ConstraintBoard.MIN_BOX || box > ConstraintBoard.MAX_BOX) {
+            throw new IllegalArgumentException("Box size must be between " + ConstraintBoard.MIN_BOX
+                    + " and " + ConstraintBoard.MAX_BOX + ": " + box);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        this.box = box;
+        this.record = new byte[PackedFormat.recordBytes(box)];
+        ByteBuffer header = ByteBuffer.allocate(PackedFormat.HEADER_BYTES);
+        header.putInt(PackedFormat.MAGIC);
+        header.putInt(PackedFormat.VERSION);
+        header.putInt(box);
+        header.putInt(record.length);
+        header.putLong(0);
+        out.write(header.array());
+    }
+
+    public int box() {
+        return box;
+    }
+
+    /** Puzzles written so far. */
+    public long count() {
+        return count;
+    }
+
+    /** Appends {@code board}, which must have this writer's box size. */
+    public void add(ConstraintBoard board) throws IOException {
+        PackedFormat.pack(board, record, 0);
+        out.write(record);
+        count++;
+    }
+
+    /**
+     * Appends the puzzle line at {@code line[offset ..]}, one of this writer's box size. Returns
+     * false, writing nothing, if it holds a character that is not a digit of that size.
+     */
+    public boolean add(byte[] line, int offset) throws IOException {
+        if (!PackedFormat.pack(line, offset, box, record, 0)) return false;
+        out.write(record);
+        count++;
+        return true;
+    }
+
+    /** Flushes the puzzles and writes their count into the header. */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.flush();
+            ByteBuffer total = ByteBuffer.allocate(Long.BYTES).putLong(0, count);
+            channel.write(total, PackedFormat.COUNT_OFFSET);
+        } finally {
+            channel.close();
+        }
+    }
+}
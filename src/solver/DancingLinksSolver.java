@@ -0,0 +1,241 @@
+package solver;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Knuth's Algorithm X with dancing links. Sudoku becomes an exact cover problem with
+ * 4 * cells constraints (each cell filled; each digit once per row, column and box) and
+ * cells * size candidate rows (one per cell and digit), 324 and 729 on a 9x9 board. The search
+ * always branches on the constraint with the fewest rows left, which covers both naked and
+ * hidden singles for free.
+ *
+ * The link matrix is built in flat int arrays the first time a board of a given size is
+ * solved; givens are selected before the search and everything is uncovered again afterwards,
+ * so repeated solves of that size reuse it without allocating.
+ */
+public class DancingLinksSolver implements Solver {
+
+    private static final int ROOT = 0;
+
+    private int builtBox; // Box size the matrix below was built for, 0 = none yet
+    private int digits;
+
+    // Node 0 is the root, 1..columns are column headers, the rest are matrix entries
+    private int[] left;
+    private int[] right;
+    private int[] up;
+    private int[] down;
+    private int[] column;
+    private int[] rowOf;
+    private int[] size;
+    private boolean[] covered;
+    private int[] rowFirstNode;
+    private int[] givenRows;
+
+    private ConstraintBoard board;
+    private SolveListener listener;
+    private BooleanSupplier cancelCheck;
+    private long nodes;
+    private long backtracks;
+    private int maxDepth;
+    private boolean cancelled;
+
+    private void build(ConstraintBoard shape) {
+        int cells = shape.cellCount();
+        int columns = 4 * cells;
+        int rows = cells * shape.size();
+        digits = shape.size();
+        left = new int[1 + columns + 4 * rows];
+        right = new int[left.length];
+        up = new int[left.length];
+        down = new int[left.length];
+        column = new int[left.length];
+        rowOf = new int[left.length];
+        size = new int[1 + columns];
+        covered = new boolean[1 + columns];
+        rowFirstNode = new int[rows];
+        givenRows = new int[cells];
+
+        for (int c = 0; c <= columns; c++) {
+            left[c] = c == 0 ? columns : c - 1;
+            right[c] = c == columns ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+        int node = columns + 1;
+        int[] rowColumns = new int[4];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = shape.rowOf(cell);
+            int col = shape.colOf(cell);
+            int box = shape.boxOf(cell);
+            for (int d = 0; d < digits; d++) {
+                int matrixRow = cell * digits + d;
+                rowColumns[0] = 1 + cell;
+                rowColumns[1] = 1 + cells + row * digits + d;
+                rowColumns[2] = 1 + 2 * cells + col * digits + d;
+                rowColumns[3] = 1 + 3 * cells + box * digits + d;
+                rowFirstNode[matrixRow] = node;
+                for (int i = 0; i < 4; i++) {
+                    int c = rowColumns[i];
+                    column[node] = c;
+                    rowOf[node] = matrixRow;
+                    // Append at the bottom of the column
+                    up[node] = up[c];
+                    down[node] = c;
+                    down[up[c]] = node;
+                    up[c] = node;
+                    size[c]++;
+                    // Link into the row ring
+                    left[node] = i == 0 ? node + 3 : node - 1;
+                    right[node] = i == 3 ? node - 3 : node + 1;
+                    node++;
+                }
+            }
+        }
+        builtBox = shape.box();
+    }
+
+    @Override
+    public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+        if (builtBox != board.box()) build(board);
+        this.board = board;
+        this.listener = listener;
+        this.cancelCheck = cancelCheck;
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        cancelled = false;
+
+        int givens = 0;
+        boolean consistent = true;
+        for (int cell = 0; cell < board.cellCount() && consistent; cell++) {
+            int num = board.get(cell);
+            if (num == 0) continue;
+            int first = rowFirstNode[cell * digits + num - 1];
+            int node = first;
+            do {
+                if (covered[column[node]]) consistent = false;
+                node = right[node];
+            } while (node != first);
+            if (consistent) {
+                selectRow(first);
+                givenRows[givens++] = first;
+            }
+        }
+
+        boolean solved = consistent && search(0);
+
+        while (givens > 0) {
+            unselectRow(givenRows[--givens]);
+        }
+        this.board = null;
+        this.listener = null;
+        this.cancelCheck = null;
+        return solved;
+    }
+
+    private boolean search(int depth) {
+        if (right[ROOT] == ROOT) return true;
+
+        // Branch on the constraint with the fewest rows left
+        int c = right[ROOT];
+        for (int j = right[c]; j != ROOT; j = right[j]) {
+            if (size[j] < size[c]) c = j;
+        }
+        if (size[c] == 0) return false;
+        if (depth >= maxDepth) maxDepth = depth + 1;
+
+        cover(c);
+        boolean solved = false;
+        for (int r = down[c]; r != c && !cancelled; r = down[r]) {
+            if ((++nodes & BacktrackingSolver.CANCEL_POLL_MASK) == 0 && cancelCheck.getAsBoolean()) {
+                cancelled = true;
+                break;
+            }
+            int cell = rowOf[r] / digits;
+            int num = rowOf[r] % digits + 1;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+            board.place(cell, num);
+            if (listener != null && !listener.placed(cell, num)) cancelled = true;
+
+            if (!cancelled && search(depth + 1)) {
+                solved = true;
+            } else {
+                board.remove(cell);
+                if (!cancelled) backtracks++;
+                if (listener != null && !cancelled && !listener.removed(cell, num)) cancelled = true;
+            }
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+            if (solved) break;
+        }
+        uncover(c);
+        return solved;
+    }
+
+    private void selectRow(int first) {
+        int node = first;
+        do {
+            cover(column[node]);
+            node = right[node];
+        } while (node != first);
+    }
+
+    private void unselectRow(int first) {
+        int node = left[first];
+        do {
+            uncover(column[node]);
+            node = left[node];
+        } while (node != left[first]);
+    }
+
+    private void cover(int c) {
+        covered[c] = true;
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+        covered[c] = false;
+    }
+
+    @Override
+    public long nodes() {
+        return nodes;
+    }
+
+    @Override
+    public long backtracks() {
+        return backtracks;
+    }
+
+    @Override
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+}
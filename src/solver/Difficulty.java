@@ -0,0 +1,46 @@
+package solver;
+
+/**
+ * Grade of a puzzle, from the number of guesses {@link PropagatingSolver} needs on it: none
+ * means naked and hidden singles alone solve it, and every guess on top is a point where
+ * those techniques ran out.
+ */
+public enum Difficulty {
+
+    EASY("easy", 0),
+    MEDIUM("medium", 2),
+    HARD("hard", 10),
+    EXPERT("expert", Long.MAX_VALUE);
+
+    private final String id;
+    private final long maxGuesses;
+
+    Difficulty(String id, long maxGuesses) {
+        this.id = id;
+        this.maxGuesses = maxGuesses;
+    }
+
+    public static Difficulty rate(long guesses) {
+        for (Difficulty difficulty : values()) {
+            if (guesses <= difficulty.maxGuesses) return difficulty;
+        }
+        return EXPERT;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /** Looks a difficulty up by its command-line id. */
+    public static Difficulty fromId(String id) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.id.equals(id)) return difficulty;
+        }
+        throw new IllegalArgumentException("Unknown difficulty: " + id);
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -0,0 +1,56 @@
+package solver;
+
+/**
+ * Lookup tables for one board shape: a {@code size x size} grid of {@code box x box} boxes,
+ * with {@code size = box * box}. The tables never change, so every board of the same shape
+ * shares one instance.
+ */
+final class Geometry {
+
+    private static final Geometry[] SHAPES = new Geometry[ConstraintBoard.MAX_BOX + 1];
+
+    final int box;
+    final int size;
+    final int cells;
+    final long allDigits;
+    final int[] rowOf;
+    final int[] colOf;
+    final int[] boxOf;
+    /** Per cell, the indexes of its row, column and box units packed into bits 0-7, 8-15 and 16-23. */
+    final int[] unitsOf;
+    /** The 3 * size units (rows, then columns, then boxes), each as its cell indexes. */
+    final int[][] units;
+
+    private Geometry(int box) {
+        this.box = box;
+        this.size = box * box;
+        this.cells = size * size;
+        this.allDigits = size == 64 ? -1L : (1L << size) - 1;
+        this.rowOf = new int[cells];
+        this.colOf = new int[cells];
+        this.boxOf = new int[cells];
+        this.unitsOf = new int[cells];
+        this.units = new int[3 * size][size];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / size;
+            int col = cell % size;
+            int b = (row / box) * box + col / box;
+            rowOf[cell] = row;
+            colOf[cell] = col;
+            boxOf[cell] = b;
+            unitsOf[cell] = row | (size + col) << 8 | (2 * size + b) << 16;
+            units[row][col] = cell;
+            units[size + col][row] = cell;
+            units[2 * size + b][(row % box) * box + col % box] = cell;
+        }
+    }
+
+    static synchronized Geometry of(int box) {
+        if (box < ConstraintBoard.MIN_BOX || box > ConstraintBoard.MAX_BOX) {
+            throw new IllegalArgumentException("Box size must be between " + ConstraintBoard.MIN_BOX
+                    + " and " + ConstraintBoard.MAX_BOX + ": " + box);
+        }
+        if (SHAPES[box] == null) SHAPES[box] = new Geometry(box);
+        return SHAPES[box];
+    }
+}
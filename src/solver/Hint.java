@@ -0,0 +1,84 @@
+package solver;
+
+/**
+ * A digit that can be filled in without guessing, and the reason it is forced: a naked single
+ * (the only candidate left in its cell) or a hidden single (the only cell left for the digit in
+ * a row, column or box). These are the two techniques {@link PropagatingSolver} propagates with.
+ */
+public final class Hint {
+
+    private final int cell;
+    private final int digit;
+    private final int unit; // The row, column or box of a hidden single; -1 for a naked single
+    private final int size;
+
+    private Hint(int cell, int digit, int unit, int size) {
+        this.cell = cell;
+        this.digit = digit;
+        this.unit = unit;
+        this.size = size;
+    }
+
+    /**
+     * The first naked single on {@code board}, or failing that the first hidden single, boxes
+     * before rows and columns. Null if there is neither, or if some cell or unit has already run
+     * out of room.
+     */
+    public static Hint find(ConstraintBoard board) {
+        int size = board.size();
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            if (board.get(cell) != 0) continue;
+            long candidates = board.candidates(cell);
+            if (candidates == 0) return null;
+            if (Long.bitCount(candidates) == 1) {
+                return new Hint(cell, Long.numberOfTrailingZeros(candidates) + 1, -1, size);
+            }
+        }
+
+        int[][] units = board.units();
+        for (int i = 0; i < units.length; i++) {
+            int unit = (i + 2 * size) % units.length; // Boxes first, then rows, then columns
+            long once = 0;
+            long twice = 0;
+            for (int cell : units[unit]) {
+                if (board.get(cell) != 0) continue;
+                long candidates = board.candidates(cell);
+                twice |= once & candidates;
+                once |= candidates;
+            }
+            long missing = board.allDigits() & ~board.usedIn(unit);
+            if ((once & missing) != missing) return null; // A digit with no cell left
+            long singles = once & ~twice;
+            if (singles == 0) continue;
+            for (int cell : units[unit]) {
+                if (board.get(cell) == 0 && (board.candidates(cell) & singles) != 0) {
+                    long digit = board.candidates(cell) & singles;
+                    return new Hint(cell, Long.numberOfTrailingZeros(digit) + 1, unit, size);
+                }
+            }
+        }
+        return null;
+    }
+
+    public int cell() {
+        return cell;
+    }
+
+    public int digit() {
+        return digit;
+    }
+
+    public boolean isHiddenSingle() {
+        return unit >= 0;
+    }
+
+    /** E.g. "r3c5 = 7: the only place for 7 in box 2", counting rows, columns and boxes from 1. */
+    @Override
+    public String toString() {
+        String place = "r" + (cell / size + 1) + "c" + (cell % size + 1) + " = " + PuzzleFormat.symbol(digit);
+        if (unit < 0) return place + ": the only digit left for the cell";
+        String[] kinds = {"row", "column", "box"};
+        return place + ": the only place for " + PuzzleFormat.symbol(digit) + " in " + kinds[unit / size] + " "
+                + (unit % size + 1);
+    }
+}
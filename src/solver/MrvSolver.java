@@ -0,0 +1,128 @@
+package solver;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Backtracking that always branches on the empty cell with the fewest remaining candidates
+ * (minimum remaining values). A cell with no candidates left fails immediately instead of
+ * being discovered after the rest of the row has been filled in. Uses the same preallocated
+ * trail as {@link BacktrackingSolver}, so it allocates nothing per node.
+ */
+public class MrvSolver implements Solver {
+
+    private int[] trailCell = new int[0];
+    private long[] trailUntried = new long[0];
+    private long nodes;
+    private long backtracks;
+    private int maxDepth;
+    private boolean cancelled;
+
+    @Override
+    public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        cancelled = false;
+        if (trailCell.length < board.cellCount()) {
+            trailCell = new int[board.cellCount()];
+            trailUntried = new long[board.cellCount()];
+        }
+        int[] trailCell = this.trailCell;
+        long[] trailUntried = this.trailUntried;
+
+        int cell = board.mostConstrainedCell();
+        if (cell < 0) return true;
+        int depth = 0;
+        Arrays.fill(trailCell, 0, Math.min(board.cellCount() + 1, trailCell.length), -1); // Levels not reached yet, see publishCounts()
+        trailCell[0] = cell;
+        trailUntried[0] = board.candidates(cell);
+
+        while (depth >= 0) {
+            cell = trailCell[depth];
+
+            int placed = board.get(cell);
+            if (placed != 0) {
+                board.remove(cell);
+                if (listener != null) {
+                    publishCounts(depth);
+                    if (!listener.removed(cell, placed)) {
+                        cancelled = true;
+                        break;
+                    }
+                }
+            }
+
+            long untried = trailUntried[depth];
+            if (untried == 0) {
+                depth--;
+                continue;
+            }
+            trailUntried[depth] = untried & (untried - 1);
+            int num = Long.numberOfTrailingZeros(untried) + 1;
+
+            if ((++nodes & BacktrackingSolver.CANCEL_POLL_MASK) == 0) {
+                publishCounts(depth + 1);
+                if (cancelCheck.getAsBoolean()) {
+                    cancelled = true;
+                    break;
+                }
+            }
+            board.place(cell, num);
+            if (listener != null) {
+                publishCounts(depth + 1);
+                if (!listener.placed(cell, num)) {
+                    cancelled = true;
+                    break;
+                }
+            }
+
+            int next = board.mostConstrainedCell();
+            if (next < 0) {
+                publishCounts(depth + 1);
+                return true;
+            }
+            depth++;
+            trailCell[depth] = next;
+            trailUntried[depth] = board.candidates(next);
+        }
+
+        publishCounts(Math.max(depth, 0));
+        if (cancelled) {
+            for (; depth >= 0; depth--) {
+                if (board.get(trailCell[depth]) != 0) board.remove(trailCell[depth]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Brings the counters other than nodes up to date, with {@code pathDigits} digits on the
+     * search path. Every digit tried is either still on the path or was taken back, and the
+     * deepest level reached is the last trail slot ever written, so neither is counted per node.
+     */
+    private void publishCounts(int pathDigits) {
+        backtracks = nodes - pathDigits;
+        while (maxDepth < trailCell.length && trailCell[maxDepth] >= 0) maxDepth++;
+    }
+
+    @Override
+    public long nodes() {
+        return nodes;
+    }
+
+    @Override
+    public long backtracks() {
+        return backtracks;
+    }
+
+    @Override
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,147 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-width binary form of a puzzle, and the layout of a corpus file of them, shared by
+ * {@link CorpusWriter} and {@link PuzzleCorpus}. A packed puzzle stores each cell in just
+ * enough bits for the digits of its size, with 0 for an empty cell. Cells are stored
+ * row-major and low bits first. That is 4 bits (one nibble) per cell on 9x9, so a puzzle
+ * takes 41 bytes: half its text line. A 16x16 puzzle takes 160 bytes. Two packed puzzles
+ * are equal when their bytes are, so copying or comparing one is an array copy or compare
+ * of a few dozen bytes.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "SDKP"
+ *      4     4  format version
+ *      8     4  box size (3 for 9x9)
+ *     12     4  bytes per puzzle
+ *     16     8  number of puzzles
+ *     24     -  puzzles, back to back, all of the same size
+ * </pre>
+ *
+ * Since every puzzle has the same width, puzzle {@code i} starts at
+ * {@code HEADER_BYTES + i * recordBytes}, and the file can be read at any index without
+ * scanning it.
+ */
+public final class PackedFormat {
+
+    public static final int MAGIC = 0x53444B50; // "SDKP"
+    public static final int VERSION = 1;
+    public static final int COUNT_OFFSET = 16;
+    public static final int HEADER_BYTES = 24;
+
+    private PackedFormat() {
+    }
+
+    /** Bits per cell on boards of {@code box}: enough for the digits 0 to size. */
+    public static int bitsPerCell(int box) {
+        return 32 - Integer.numberOfLeadingZeros(box * box);
+    }
+
+    /** Bytes per packed puzzle on boards of {@code box}. */
+    public static int recordBytes(int box) {
+        return (box * box * box * box * bitsPerCell(box) + 7) / 8;
+    }
+
+    /** Packs {@code board} into {@link #recordBytes} bytes of {@code out} from {@code offset}. */
+    public static void pack(ConstraintBoard board, byte[] out, int offset) {
+        int bits = bitsPerCell(board.box());
+        long pending = 0;
+        int pendingBits = 0;
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            pending |= (long) board.get(cell) << pendingBits;
+            pendingBits += bits;
+            if (pendingBits >= 8) {
+                out[offset++] = (byte) pending;
+                pending >>>= 8;
+                pendingBits -= 8;
+            }
+        }
+        if (pendingBits > 0) out[offset] = (byte) pending;
+    }
+
+    /**
+     * Packs the puzzle line {@code line[from .. from + cells)} of a board of {@code box}. Givens
+     * are copied as they are, conflicting or not. Returns false, leaving {@code out} partly
+     * written, if a character is not a digit of that size or an empty marker.
+     */
+    public static boolean pack(byte[] line, int from, int box, byte[] out, int offset) {
+        int size = box * box;
+        int bits = bitsPerCell(box);
+        long pending = 0;
+        int pendingBits = 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            int num = PuzzleFormat.digit(line[from + cell]);
+            if (num < 0 || num > size) return false;
+            pending |= (long) num << pendingBits;
+            pendingBits += bits;
+            if (pendingBits >= 8) {
+                out[offset++] = (byte) pending;
+                pending >>>= 8;
+                pendingBits -= 8;
+            }
+        }
+        if (pendingBits > 0) out[offset] = (byte) pending;
+        return true;
+    }
+
+    /**
+     * Loads the packed puzzle at absolute position {@code offset} of {@code in} into
+     * {@code board}, which decides the size. Reads the buffer in place; its position is not
+     * used. Returns false if a digit is too large for the board or two givens conflict.
+     */
+    public static boolean unpack(ByteBuffer in, int offset, ConstraintBoard board) {
+        board.clear();
+        int size = board.size();
+        int bits = bitsPerCell(board.box());
+        int mask = (1 << bits) - 1;
+        int end = offset + recordBytes(board.box());
+        boolean bigEndian = in.order() == ByteOrder.BIG_ENDIAN;
+        long pending = 0;
+        int pendingBits = 0;
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            if (pendingBits < bits) {
+                // Four bytes at a time while the record has them; a read per byte costs more than the rest of the loop
+                if (offset + Integer.BYTES <= end) {
+                    int word = in.getInt(offset);
+                    pending |= ((bigEndian ? Integer.reverseBytes(word) : word) & 0xFFFFFFFFL) << pendingBits;
+                    offset += Integer.BYTES;
+                    pendingBits += 32;
+                } else {
+                    pending |= (long) (in.get(offset++) & 0xFF) << pendingBits;
+                    pendingBits += 8;
+                }
+            }
+            int num = (int) pending & mask;
+            pending >>>= bits;
+            pendingBits -= bits;
+            if (num == 0) continue;
+            if (num > size) return false;
+            if ((board.candidates(cell) & (1L << (num - 1))) == 0) return false;
+            board.place(cell, num);
+        }
+        return true;
+    }
+
+    /** Writes the packed puzzle at {@code offset} of {@code in} as a puzzle line, valid or not. */
+    public static void format(ByteBuffer in, int offset, int box, byte[] out, int outOffset) {
+        int cells = box * box * box * box;
+        int bits = bitsPerCell(box);
+        int mask = (1 << bits) - 1;
+        long pending = 0;
+        int pendingBits = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (pendingBits < bits) {
+                pending |= (long) (in.get(offset++) & 0xFF) << pendingBits;
+                pendingBits += 8;
+            }
+            int num = (int) pending & mask;
+            pending >>>= bits;
+            pendingBits -= bits;
+            out[outOffset + cell] = num <= box * box ? (byte) PuzzleFormat.symbol(num) : (byte) '?';
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Solves a single puzzle on several threads by splitting the top of the search tree.
+ *
+ * Down to {@code splitDepth} levels, the empty cell with the fewest candidates is chosen
+ * and every candidate becomes its own fork-join subtree on a private copy of the board.
+ * Below that, each subtree runs a sequential solver of the chosen {@link Strategy}. The first
+ * subtree to reach a solution copies it back and cancels the others through the same cancellation
+ * check a caller passes in, so an outer {@code isCancelled()} stops every branch as well.
+ *
+ * Branches run interleaved, so there is no single step sequence to report. A call with a
+ * listener therefore runs the leaf strategy alone on the calling thread, reporting every step
+ * as that strategy does. Unlike the sequential solvers, one instance may be used from several
+ * threads.
+ */
+public class ParallelSearch implements Solver {
+
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final ThreadLocal<Solver> leafSolver;
+    private volatile long nodes;
+    private volatile long backtracks;
+    private volatile int maxDepth;
+    private volatile long propagations;
+    private volatile boolean cancelled;
+
+    public ParallelSearch(ForkJoinPool pool, int splitDepth) {
+        this(pool, splitDepth, Strategy.NAIVE);
+    }
+
+    public ParallelSearch(ForkJoinPool pool, int splitDepth, Strategy leafStrategy) {
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.leafSolver = ThreadLocal.withInitial(leafStrategy::create);
+    }
+
+    /** Solves {@code board} in place; returns false if there is no solution or the search was cancelled. */
+    @Override
+    public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+        if (listener != null) {
+            return solveSequentially(board, listener, cancelCheck);
+        }
+        Search search = new Search(board, cancelCheck);
+        ConstraintBoard root = new ConstraintBoard(board.box());
+        root.copyFrom(board);
+        pool.invoke(new Branch(search, root, 0));
+        nodes = search.nodes.get();
+        backtracks = search.backtracks.get();
+        maxDepth = search.maxDepth.get();
+        propagations = search.propagations.get();
+        cancelled = !search.solved.get() && search.outerCancelCheck.getAsBoolean();
+        return search.solved.get();
+    }
+
+    private boolean solveSequentially(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+        Solver solver = leafSolver.get();
+        boolean solved = solver.solve(board, listener, cancelCheck);
+        nodes = solver.nodes();
+        backtracks = solver.backtracks();
+        maxDepth = solver.maxDepth();
+        propagations = solver.propagations();
+        cancelled = solver.wasCancelled();
+        return solved;
+    }
+
+    @Override
+    public long nodes() {
+        return nodes;
+    }
+
+    @Override
+    public long backtracks() {
+        return backtracks;
+    }
+
+    /** Split levels plus the deepest leaf search. */
+    @Override
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public long propagations() {
+        return propagations;
+    }
+
+    @Override
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+
+    // State shared by all branches of one solve call
+    private static class Search {
+        final ConstraintBoard target;
+        final BooleanSupplier outerCancelCheck;
+        final AtomicBoolean solved = new AtomicBoolean();
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicLong backtracks = new AtomicLong();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        final AtomicLong propagations = new AtomicLong();
+        volatile boolean stop;
+
+        Search(ConstraintBoard target, BooleanSupplier outerCancelCheck) {
+            this.target = target;
+            this.outerCancelCheck = outerCancelCheck;
+        }
+
+        boolean isCancelled() {
+            return stop || outerCancelCheck.getAsBoolean();
+        }
+
+        void finish(ConstraintBoard solution) {
+            if (solved.compareAndSet(false, true)) {
+                target.copyFrom(solution);
+                stop = true;
+            }
+        }
+    }
+
+    private class Branch extends RecursiveAction {
+        private final Search search;
+        private final ConstraintBoard board;
+        private final int depth;
+
+        Branch(Search search, ConstraintBoard board, int depth) {
+            this.search = search;
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.isCancelled()) return;
+
+            if (depth >= splitDepth) {
+                Solver solver = leafSolver.get();
+                boolean solved = solver.solve(board, search::isCancelled);
+                search.nodes.addAndGet(solver.nodes());
+                search.backtracks.addAndGet(solver.backtracks());
+                search.propagations.addAndGet(solver.propagations());
+                search.maxDepth.accumulateAndGet(depth + solver.maxDepth(), Math::max);
+                if (solved) search.finish(board);
+                return;
+            }
+
+            int cell = board.mostConstrainedCell();
+            if (cell < 0) {
+                search.maxDepth.accumulateAndGet(depth, Math::max);
+                search.finish(board);
+                return;
+            }
+
+            List<Branch> children = new ArrayList<>();
+            for (long mask = board.candidates(cell); mask != 0; mask &= mask - 1) {
+                ConstraintBoard child = new ConstraintBoard(board.box());
+                child.copyFrom(board);
+                child.place(cell, Long.numberOfTrailingZeros(mask) + 1);
+                search.nodes.incrementAndGet();
+                children.add(new Branch(search, child, depth + 1));
+            }
+            invokeAll(children);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package solver;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * MRV backtracking with constraint propagation. After every guess it fills in all forced
+ * digits before guessing again:
+ * <ul>
+ *   <li>naked singles - an empty cell with exactly one candidate;</li>
+ *   <li>hidden singles - a digit that fits in only one cell of a row, column or box.</li>
+ * </ul>
+ * Propagation also detects dead ends early: a cell with no candidates, or a digit with no
+ * cell left in some unit. Every placement, guessed or forced, goes on one preallocated trail
+ * so a failed guess is undone by popping back to where its level started.
+ *
+ * {@link #countSolutions} runs the same search without stopping at the first solution, which
+ * {@link SolutionCounter} uses for uniqueness checks.
+ */
+public class PropagatingSolver implements Solver {
+
+    // Outcomes of a propagation pass
+    private static final int OK = 0;
+    private static final int CONTRADICTION = 1;
+    private static final int STOPPED = 2;
+
+    private int[] placedCells = new int[0];
+    private int[] levelCell = new int[0];
+    private long[] levelUntried = new long[0];
+    private int[] levelStart = new int[0];
+    private int placedTop;
+    private long nodes;
+    private long backtracks;
+    private int maxDepth;
+    private long propagations;
+    private boolean cancelled;
+
+    @Override
+    public boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck) {
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        propagations = 0;
+        cancelled = false;
+        placedTop = 0;
+        int cells = board.cellCount();
+        if (placedCells.length < cells) {
+            placedCells = new int[cells];
+            levelCell = new int[cells];
+            levelUntried = new long[cells];
+            levelStart = new int[cells];
+        }
+
+        int result = propagate(board, listener);
+        if (result == CONTRADICTION) {
+            undoTo(board, 0, listener);
+            return false;
+        }
+        if (result == STOPPED) return stop(board);
+        int cell = board.mostConstrainedCell();
+        if (cell < 0) return true;
+
+        int depth = 0;
+        maxDepth = 1;
+        levelCell[0] = cell;
+        levelUntried[0] = board.candidates(cell);
+        levelStart[0] = placedTop;
+
+        while (depth >= 0) {
+            // Take back the previous guess at this level and everything it forced
+            if (placedTop > levelStart[depth]) backtracks++;
+            if (!undoTo(board, levelStart[depth], listener)) return stop(board);
+
+            long untried = levelUntried[depth];
+            if (untried == 0) {
+                depth--;
+                continue;
+            }
+            levelUntried[depth] = untried & (untried - 1);
+            int num = Long.numberOfTrailingZeros(untried) + 1;
+            cell = levelCell[depth];
+
+            if ((++nodes & BacktrackingSolver.CANCEL_POLL_MASK) == 0 && cancelCheck.getAsBoolean()) {
+                return stop(board);
+            }
+            if (!place(board, cell, num, listener)) return stop(board);
+
+            result = propagate(board, listener);
+            if (result == STOPPED) return stop(board);
+            if (result == CONTRADICTION) continue;
+
+            int next = board.mostConstrainedCell();
+            if (next < 0) return true;
+            depth++;
+            if (depth >= maxDepth) maxDepth = depth + 1;
+            levelCell[depth] = next;
+            levelUntried[depth] = board.candidates(next);
+            levelStart[depth] = placedTop;
+        }
+
+        // Every guess failed; put back anything the initial propagation filled in
+        if (!undoTo(board, 0, listener)) return stop(board);
+        return false;
+    }
+
+    /**
+     * Counts the solutions of {@code board}, stopping once {@code limit} are found, and leaves
+     * the board as it was. {@code onSolution}, if not null, sees each solved board as it is
+     * found and can stop the count early by returning false. Returns the number found, which
+     * is short of the real total only if the limit was hit, {@code onSolution} stopped it or
+     * {@code cancelCheck} did (see {@link #wasCancelled()}).
+     */
+    public long countSolutions(ConstraintBoard board, long limit, BooleanSupplier cancelCheck,
+                               Predicate<ConstraintBoard> onSolution) {
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        propagations = 0;
+        cancelled = false;
+        placedTop = 0;
+        int cells = board.cellCount();
+        if (placedCells.length < cells) {
+            placedCells = new int[cells];
+            levelCell = new int[cells];
+            levelUntried = new long[cells];
+            levelStart = new int[cells];
+        }
+        if (limit <= 0) return 0;
+
+        long count = 0;
+        int cell = -1;
+        if (propagate(board, null) == OK) {
+            cell = board.mostConstrainedCell();
+            if (cell < 0) {
+                count = 1;
+                if (onSolution != null) onSolution.test(board);
+            }
+        }
+        if (cell < 0) {
+            undoTo(board, 0, null);
+            return count;
+        }
+
+        int depth = 0;
+        maxDepth = 1;
+        levelCell[0] = cell;
+        levelUntried[0] = board.candidates(cell);
+        levelStart[0] = placedTop;
+
+        while (depth >= 0) {
+            if (placedTop > levelStart[depth]) backtracks++;
+            undoTo(board, levelStart[depth], null);
+
+            long untried = levelUntried[depth];
+            if (untried == 0) {
+                depth--;
+                continue;
+            }
+            levelUntried[depth] = untried & (untried - 1);
+            int num = Long.numberOfTrailingZeros(untried) + 1;
+            cell = levelCell[depth];
+
+            if ((++nodes & BacktrackingSolver.CANCEL_POLL_MASK) == 0 && cancelCheck.getAsBoolean()) {
+                cancelled = true;
+                break;
+            }
+            place(board, cell, num, null);
+            if (propagate(board, null) == CONTRADICTION) continue;
+
+            int next = board.mostConstrainedCell();
+            if (next < 0) {
+                // A solution: count it and carry on as if it were a dead end
+                count++;
+                if ((onSolution != null && !onSolution.test(board)) || count >= limit) break;
+                continue;
+            }
+            depth++;
+            if (depth >= maxDepth) maxDepth = depth + 1;
+            levelCell[depth] = next;
+            levelUntried[depth] = board.candidates(next);
+            levelStart[depth] = placedTop;
+        }
+
+        undoTo(board, 0, null);
+        return count;
+    }
+
+    private int propagate(ConstraintBoard board, SolveListener listener) {
+        int cellCount = board.cellCount();
+        int[][] units = board.units();
+        long allDigits = board.allDigits();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // Naked singles
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (board.get(cell) != 0) continue;
+                long candidates = board.candidates(cell);
+                if (candidates == 0) return CONTRADICTION;
+                if ((candidates & (candidates - 1)) == 0) {
+                    propagations++;
+                    if (!place(board, cell, Long.numberOfTrailingZeros(candidates) + 1, listener)) return STOPPED;
+                    changed = true;
+                }
+            }
+
+            // Hidden singles: digits that appear as a candidate exactly once in a unit
+            for (int unit = 0; unit < units.length; unit++) {
+                int[] cells = units[unit];
+                long once = 0;
+                long twice = 0;
+                for (int cell : cells) {
+                    if (board.get(cell) != 0) continue;
+                    long candidates = board.candidates(cell);
+                    twice |= once & candidates;
+                    once |= candidates;
+                }
+                long used = board.usedIn(unit);
+                if ((once | used) != allDigits) return CONTRADICTION;
+                long hidden = once & ~twice & ~used;
+                for (; hidden != 0; hidden &= hidden - 1) {
+                    long bit = hidden & -hidden;
+                    for (int cell : cells) {
+                        if (board.get(cell) == 0 && (board.candidates(cell) & bit) != 0) {
+                            propagations++;
+                            if (!place(board, cell, Long.numberOfTrailingZeros(bit) + 1, listener)) return STOPPED;
+                            changed = true;
+                            break;
+                        }
+                    }
+                    // An earlier single in this unit can take away the last spot of another
+                    if ((board.usedIn(unit) & bit) == 0) return CONTRADICTION;
+                }
+            }
+        }
+        return OK;
+    }
+
+    private boolean place(ConstraintBoard board, int cell, int num, SolveListener listener) {
+        board.place(cell, num);
+        placedCells[placedTop++] = cell;
+        return listener == null || listener.placed(cell, num);
+    }
+
+    private boolean undoTo(ConstraintBoard board, int start, SolveListener listener) {
+        while (placedTop > start) {
+            int cell = placedCells[--placedTop];
+            int num = board.get(cell);
+            board.remove(cell);
+            if (listener != null && !listener.removed(cell, num)) return false;
+        }
+        return true;
+    }
+
+    private boolean stop(ConstraintBoard board) {
+        cancelled = true;
+        undoTo(board, 0, null);
+        return false;
+    }
+
+    @Override
+    public long nodes() {
+        return nodes;
+    }
+
+    @Override
+    public long backtracks() {
+        return backtracks;
+    }
+
+    @Override
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /** Digits filled in by naked or hidden singles in the last solve. */
+    @Override
+    public long propagations() {
+        return propagations;
+    }
+
+    @Override
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,108 @@
+package solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a binary puzzle corpus (see {@link PackedFormat}), memory-mapped so that
+ * puzzle {@code i} is loaded into a board straight from the page cache: no read calls, no
+ * intermediate buffer, and nothing on the heap that grows with the corpus. Any thread may
+ * load any index at any time, so batch workers can split the corpus by index range.
+ */
+public class PuzzleCorpus implements Closeable {
+
+    // Mapped in segments of whole puzzles so corpora beyond 2 GB still work
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int box;
+    private final int recordBytes;
+    private final long size;
+    private final long perSegment;
+
+    public PuzzleCorpus(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(PackedFormat.HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < PackedFormat.HEADER_BYTES || header.getInt() != PackedFormat.MAGIC) {
+                throw new IOException("Not a puzzle corpus: " + path);
+            }
+            int version = header.getInt();
+            if (version != PackedFormat.VERSION) {
+                throw new IOException("Unsupported corpus version " + version + ": " + path);
+            }
+            box = header.getInt();
+            recordBytes = header.getInt();
+            size = header.getLong();
+            if (box < ConstraintBoard.MIN_BOX || box > ConstraintBoard.MAX_BOX
+                    || recordBytes != PackedFormat.recordBytes(box) || size < 0) {
+                throw new IOException("Unsupported board in corpus: " + path);
+            }
+            if (PackedFormat.HEADER_BYTES + size * recordBytes > channel.size()) {
+                throw new IOException("Corpus is truncated: " + path);
+            }
+            perSegment = SEGMENT_BYTES / recordBytes;
+            segments = new MappedByteBuffer[(int) ((size + perSegment - 1) / perSegment)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = i * perSegment;
+                long count = Math.min(perSegment, size - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        PackedFormat.HEADER_BYTES + first * recordBytes, count * recordBytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** True if {@code path} is a file that starts like a corpus. */
+    public static boolean isCorpus(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) return false;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            file.read(magic, 0);
+            return magic.position() == Integer.BYTES && magic.getInt(0) == PackedFormat.MAGIC;
+        }
+    }
+
+    public int box() {
+        return box;
+    }
+
+    public int cellCount() {
+        return box * box * box * box;
+    }
+
+    /** Number of puzzles. */
+    public long size() {
+        return size;
+    }
+
+    /** Loads puzzle {@code index} into {@code board}, which must have this corpus's box size; see {@link PackedFormat#unpack}. */
+    public boolean load(long index, ConstraintBoard board) {
+        return PackedFormat.unpack(segments[(int) (index / perSegment)], offset(index), board);
+    }
+
+    /** Writes puzzle {@code index} as a puzzle line of {@link #cellCount} characters. */
+    public void format(long index, byte[] out, int offset) {
+        PackedFormat.format(segments[(int) (index / perSegment)], offset(index), box, out, offset);
+    }
+
+    private int offset(long index) {
+        return (int) (index % perSegment) * recordBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,101 @@
+package solver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The one-line format used for puzzle files: one cell per character in row-major order,
+ * '0' or '.' for empty cells. A line is 81 characters for 9x9, 256 for 16x16, 625 for
+ * 25x25 and so on; the length alone determines the board size. Digits 1-9 are written as
+ * '1'-'9', and larger boards continue with 'A'-'Z', then 'a'-'z', then '!', '@', '&', so 16x16
+ * uses 1-9 and A-G.
+ */
+public final class PuzzleFormat {
+
+    /** Length of a 9x9 puzzle line. */
+    public static final int LINE_LENGTH = 81;
+    /** Length of the longest supported puzzle line (64x64). */
+    public static final int MAX_LINE_LENGTH = ConstraintBoard.MAX_BOX * ConstraintBoard.MAX_BOX
+            * ConstraintBoard.MAX_BOX * ConstraintBoard.MAX_BOX;
+
+    private static final String SYMBOLS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz!@&";
+    private static final byte[] DIGIT_OF = new byte[128]; // -1 = not a cell character
+
+    static {
+        Arrays.fill(DIGIT_OF, (byte) -1);
+        DIGIT_OF['0'] = 0;
+        DIGIT_OF['.'] = 0;
+        for (int i = 0; i < SYMBOLS.length(); i++) {
+            DIGIT_OF[SYMBOLS.charAt(i)] = (byte) (i + 1);
+        }
+    }
+
+    private PuzzleFormat() {
+    }
+
+    /** The character for digit {@code num}, or '.' for 0. */
+    public static char symbol(int num) {
+        return num == 0 ? '.' : SYMBOLS.charAt(num - 1);
+    }
+
+    /** The digit written as {@code ch}: 0 for an empty marker, -1 if it is neither. */
+    public static int digit(int ch) {
+        return ch >= 0 && ch < DIGIT_OF.length ? DIGIT_OF[ch] : -1;
+    }
+
+    /** Box size of the board a line of {@code length} characters describes, or -1 if none does. */
+    public static int boxForLength(int length) {
+        for (int box = ConstraintBoard.MIN_BOX; box <= ConstraintBoard.MAX_BOX; box++) {
+            if (box * box * box * box == length) return box;
+        }
+        return -1;
+    }
+
+    /**
+     * Loads {@code line[offset .. offset + cells)} into {@code board}, which decides the size.
+     * Returns false if a character is not a digit of that size or an empty marker, or if two givens conflict.
+     */
+    public static boolean parse(byte[] line, int offset, ConstraintBoard board) {
+        board.clear();
+        int size = board.size();
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            int num = digit(line[offset + cell]);
+            if (num == 0) continue;
+            if (num < 0 || num > size) return false;
+            if ((board.candidates(cell) & (1L << (num - 1))) == 0) return false;
+            board.place(cell, num);
+        }
+        return true;
+    }
+
+    public static boolean parse(CharSequence line, ConstraintBoard board) {
+        if (line.length() != board.cellCount()) return false;
+        byte[] bytes = new byte[line.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char ch = line.charAt(i);
+            bytes[i] = ch < 128 ? (byte) ch : (byte) '?';
+        }
+        return parse(bytes, 0, board);
+    }
+
+    /** A board sized for {@code line} with the puzzle loaded, or null if the line is not a valid puzzle. */
+    public static ConstraintBoard parse(CharSequence line) {
+        int box = boxForLength(line.length());
+        if (box < 0) return null;
+        ConstraintBoard board = new ConstraintBoard(box);
+        return parse(line, board) ? board : null;
+    }
+
+    /** Writes the board as one character per cell into {@code out}, using '.' for empty cells. */
+    public static void format(ConstraintBoard board, byte[] out, int offset) {
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            out[offset + cell] = (byte) symbol(board.get(cell));
+        }
+    }
+
+    public static String format(ConstraintBoard board) {
+        byte[] out = new byte[board.cellCount()];
+        format(board, out, 0);
+        return new String(out, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,121 @@
+package solver;
+
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Makes random puzzles with exactly one solution, then grades them.
+ *
+ * A solution grid is drawn first: the boxes on the diagonal share no row or column, so each
+ * gets a random permutation of the digits, {@link PropagatingSolver} completes the grid, and
+ * the digits are relabelled at random to undo the solver's low-digits-first bias. Then clues
+ * are taken away in random order. A clue stays out only if no other digit in its cell
+ * still leads to a solution; each of those checks is a first-solution search on an almost
+ * full board, much cheaper than counting the solutions of the whole puzzle again. Each check
+ * also has a node budget: on 16x16 and larger boards a few of them would otherwise run for
+ * seconds, and a check that runs out keeps its clue. So the puzzle is always unique, and
+ * minimal (no remaining clue can go) unless a check gave up.
+ *
+ * Not thread-safe; give each thread its own generator with its own random stream.
+ */
+public class PuzzleGenerator {
+
+    // Cancellation polls per uniqueness check; the solver polls every 256 nodes, so about 1000 nodes.
+    // 9x9 checks stay far below that, 16x16 ones give up now and then.
+    private static final int CHECK_POLLS = 4;
+
+    private final int box;
+    private final SplittableRandom random;
+    private final PropagatingSolver solver = new PropagatingSolver();
+    private final ConstraintBoard grader;
+    private final int[] order;
+    private final int[] digits;
+    private long guesses;
+    private int pollsLeft;
+    private final BooleanSupplier budget = () -> --pollsLeft < 0;
+
+    public PuzzleGenerator(int box, SplittableRandom random) {
+        this.box = box;
+        this.random = random;
+        this.grader = new ConstraintBoard(box);
+        this.order = new int[grader.cellCount()];
+        this.digits = new int[grader.size() + 1];
+    }
+
+    /** Fills {@code puzzle}, a board of this generator's size, with a new puzzle and returns its grade. */
+    public Difficulty generate(ConstraintBoard puzzle) {
+        fillGrid(puzzle);
+        removeClues(puzzle);
+        grader.copyFrom(puzzle);
+        solver.solve(grader);
+        guesses = solver.nodes();
+        return Difficulty.rate(guesses);
+    }
+
+    /** Guesses the propagation search needed on the last generated puzzle, which its grade is based on. */
+    public long guesses() {
+        return guesses;
+    }
+
+    private void fillGrid(ConstraintBoard board) {
+        int size = board.size();
+        int[][] units = board.units();
+        do {
+            board.clear();
+            for (int b = 0; b < box; b++) {
+                shuffleDigits(size);
+                int[] cells = units[2 * size + b * box + b];
+                for (int i = 0; i < size; i++) {
+                    board.place(cells[i], digits[i + 1]);
+                }
+            }
+        } while (!solver.solve(board)); // Never fails in practice, but cheap to guard
+
+        shuffleDigits(size);
+        int cellCount = board.cellCount();
+        for (int cell = 0; cell < cellCount; cell++) {
+            order[cell] = digits[board.get(cell)];
+        }
+        board.clear();
+        for (int cell = 0; cell < cellCount; cell++) {
+            board.place(cell, order[cell]);
+        }
+    }
+
+    private void removeClues(ConstraintBoard board) {
+        int cellCount = board.cellCount();
+        for (int i = 0; i < cellCount; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        for (int i = 0; i < cellCount; i++) {
+            int cell = order[i];
+            int num = board.get(cell);
+            board.remove(cell);
+            if (hasOtherSolution(board, cell, num)) board.place(cell, num);
+        }
+    }
+
+    // Whether the puzzle still solves with something other than num in cell, or might (out of budget)
+    private boolean hasOtherSolution(ConstraintBoard board, int cell, int num) {
+        long others = board.candidates(cell) & ~(1L << (num - 1));
+        for (; others != 0; others &= others - 1) {
+            board.place(cell, Long.numberOfTrailingZeros(others) + 1);
+            pollsLeft = CHECK_POLLS;
+            long found = solver.countSolutions(board, 1, budget, null);
+            board.remove(cell);
+            if (found > 0 || solver.wasCancelled()) return true;
+        }
+        return false;
+    }
+
+    // digits[1..size] becomes a random permutation of 1..size
+    private void shuffleDigits(int size) {
+        for (int i = 1; i <= size; i++) {
+            int j = 1 + random.nextInt(i);
+            digits[i] = digits[j];
+            digits[j] = i;
+        }
+    }
+}
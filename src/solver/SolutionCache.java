@@ -0,0 +1,185 @@
+package solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU map from canonical puzzle keys (see {@link Canonicalizer}) to canonical solutions,
+ * shared by all threads of a run. A puzzle without a solution is stored too, as an empty
+ * solution, so it is not searched again either. Each entry is the key and the solution at
+ * one byte per cell; once the cache is full, the least recently used entry makes room.
+ *
+ * A cache opened on a file also keeps every new entry there: the file is read back when the
+ * cache is opened (the most recent entries win if it holds more than fit) and appended to on
+ * every store, one record per entry: the box size, the key, a solved flag and the solution.
+ *
+ * Hits, misses, evictions, the time spent on lookups, canonicalization included, and the
+ * puzzles that skipped the cache are counted for reporting.
+ */
+public class SolutionCache implements AutoCloseable {
+
+    private static final byte[] NO_SOLUTION = new byte[0];
+
+    private final int capacity;
+    private final Map<String, byte[]> entries;
+    private OutputStream store; // Set once, right after a file-backed cache is loaded
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+
+    /** A cache in memory only. */
+    public SolutionCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                if (size() <= SolutionCache.this.capacity) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /** A cache backed by {@code path}, loading the entries already stored there. */
+    public static SolutionCache open(Path path, int capacity) throws IOException {
+        SolutionCache cache = new SolutionCache(capacity);
+        if (Files.exists(path)) {
+            long good = 0; // End of the last complete record
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                while (true) {
+                    int box;
+                    try {
+                        box = in.readUnsignedByte();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (box < ConstraintBoard.MIN_BOX || box > ConstraintBoard.MAX_BOX) {
+                        throw new IOException("Corrupt solution cache " + path);
+                    }
+                    byte[] key = new byte[box * box * box * box];
+                    in.readFully(key);
+                    byte[] solution = in.readBoolean() ? new byte[key.length] : NO_SOLUTION;
+                    in.readFully(solution);
+                    cache.entries.put(keyOf(key), solution);
+                    good += 2 + key.length + solution.length;
+                }
+            } catch (EOFException e) {
+                // A record cut short by a crash: drop it, so new records start on a boundary
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(good);
+                }
+            }
+            cache.evictions.reset();
+        }
+        cache.store = new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        return cache;
+    }
+
+    /**
+     * The canonical solution stored for {@code key}, an empty array if the puzzle is stored as
+     * unsolvable, or null if it is not in the cache.
+     */
+    public byte[] get(byte[] key) {
+        byte[] solution;
+        synchronized (entries) {
+            solution = entries.get(keyOf(key));
+        }
+        (solution != null ? hits : misses).increment();
+        return solution;
+    }
+
+    /** Stores the canonical solution of {@code key}, or null for a puzzle without one. Both arrays are copied. */
+    public void put(byte[] key, byte[] solution) throws IOException {
+        String k = keyOf(key);
+        byte[] value = solution == null ? NO_SOLUTION : solution.clone();
+        synchronized (entries) {
+            if (entries.put(k, value) != null || store == null) return;
+            store.write(PuzzleFormat.boxForLength(key.length));
+            store.write(key);
+            store.write(value.length > 0 ? 1 : 0);
+            store.write(value);
+        }
+    }
+
+    void recordLookup(long nanos) {
+        lookupNanos.add(nanos);
+    }
+
+    // A puzzle solved without a lookup because keys of its size cost more than solving it
+    void recordBypass() {
+        bypasses.increment();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /** Puzzles solved without a lookup, see {@link CachingSolver}. */
+    public long bypasses() {
+        return bypasses.sum();
+    }
+
+    /** Mean time per lookup in nanoseconds, canonicalization included. */
+    public double meanLookupNanos() {
+        long lookups = hits.sum() + misses.sum();
+        return lookups == 0 ? 0 : (double) lookupNanos.sum() / lookups;
+    }
+
+    /** Hits, misses, evictions, lookup time and fill as one line, then any puzzles that skipped the cache. */
+    public String summary() {
+        long hits = hits();
+        long lookups = hits + misses();
+        String line = String.format("%d hits (%.1f%%), %d misses, %d evictions, %.2f us/lookup, %d of %d entries",
+                hits, lookups == 0 ? 0.0 : 100.0 * hits / lookups, misses(), evictions(),
+                meanLookupNanos() / 1000, size(), capacity);
+        long bypasses = bypasses();
+        return bypasses == 0 ? line : line + ", " + bypasses + " solved without lookup (keys cost more than solves)";
+    }
+
+    /** Flushes the backing file, if any. */
+    @Override
+    public void close() throws IOException {
+        if (store == null) return;
+        synchronized (entries) {
+            store.close();
+        }
+    }
+
+    // Latin-1 strings keep one byte per char, so the key stays as compact as the array
+    private static String keyOf(byte[] key) {
+        return new String(key, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,149 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Counts the solutions of a puzzle up to a limit, stopping as soon as the limit is reached.
+ * A limit of 2 is a uniqueness check: it tells "none", "unique" and "multiple" apart without
+ * enumerating every solution of a puzzle that has many.
+ *
+ * The search is {@link PropagatingSolver}'s in counting mode. Without a pool it runs on the
+ * calling thread. With one, the top {@code splitDepth} levels are split into fork-join subtrees
+ * the way {@link ParallelSearch} does; every subtree adds its solutions to one shared count as
+ * it finds them, and all of them stop once that count reaches the limit. One instance may be
+ * used from several threads.
+ */
+public class SolutionCounter {
+
+    public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final ThreadLocal<PropagatingSolver> leafSolver = ThreadLocal.withInitial(PropagatingSolver::new);
+    private volatile long nodes;
+    private volatile boolean cancelled;
+
+    /** Counts on the calling thread. */
+    public SolutionCounter() {
+        this(null, 0);
+    }
+
+    public SolutionCounter(ForkJoinPool pool, int splitDepth) {
+        this.pool = pool;
+        this.splitDepth = pool == null ? 0 : splitDepth;
+    }
+
+    public long count(ConstraintBoard board, long limit) {
+        return count(board, limit, null, () -> false);
+    }
+
+    /**
+     * Number of solutions of {@code board}, at most {@code limit}. The board is left unchanged;
+     * if {@code firstSolution} is not null it receives the first solution found (when there is
+     * one). A cancelled count returns what was found so far, see {@link #wasCancelled()}.
+     */
+    public long count(ConstraintBoard board, long limit, ConstraintBoard firstSolution, BooleanSupplier cancelCheck) {
+        Count count = new Count(limit, firstSolution, cancelCheck);
+        if (limit > 0) {
+            if (splitDepth == 0) {
+                PropagatingSolver solver = leafSolver.get();
+                solver.countSolutions(board, limit, cancelCheck, count::found);
+                count.nodes.addAndGet(solver.nodes());
+            } else {
+                ConstraintBoard root = new ConstraintBoard(board.box());
+                root.copyFrom(board);
+                pool.invoke(new Branch(count, root, 0));
+            }
+        }
+        nodes = count.nodes.get();
+        long found = Math.min(count.solutions.get(), limit);
+        cancelled = found < limit && cancelCheck.getAsBoolean();
+        return found;
+    }
+
+    /** Search nodes of the last count, over all subtrees. */
+    public long nodes() {
+        return nodes;
+    }
+
+    /** Whether the last count was stopped by its cancellation check before reaching its limit. */
+    public boolean wasCancelled() {
+        return cancelled;
+    }
+
+    /** "none", "unique" or "multiple" for the result of a count with a limit of at least 2. */
+    public static String verdict(long solutions) {
+        return solutions == 0 ? "none" : solutions == 1 ? "unique" : "multiple";
+    }
+
+    // State shared by all subtrees of one count call
+    private static class Count {
+        final long limit;
+        final ConstraintBoard firstSolution;
+        final BooleanSupplier outerCancelCheck;
+        final AtomicLong solutions = new AtomicLong();
+        final AtomicLong nodes = new AtomicLong();
+
+        Count(long limit, ConstraintBoard firstSolution, BooleanSupplier outerCancelCheck) {
+            this.limit = limit;
+            this.firstSolution = firstSolution;
+            this.outerCancelCheck = outerCancelCheck;
+        }
+
+        boolean isCancelled() {
+            return solutions.get() >= limit || outerCancelCheck.getAsBoolean();
+        }
+
+        /** Adds one solution; returns whether counting should go on. */
+        boolean found(ConstraintBoard solution) {
+            long total = solutions.incrementAndGet();
+            if (total == 1 && firstSolution != null) firstSolution.copyFrom(solution);
+            return total < limit;
+        }
+    }
+
+    private class Branch extends RecursiveAction {
+        private final Count count;
+        private final ConstraintBoard board;
+        private final int depth;
+
+        Branch(Count count, ConstraintBoard board, int depth) {
+            this.count = count;
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (count.isCancelled()) return;
+
+            if (depth >= splitDepth) {
+                PropagatingSolver solver = leafSolver.get();
+                solver.countSolutions(board, count.limit, count::isCancelled, count::found);
+                count.nodes.addAndGet(solver.nodes());
+                return;
+            }
+
+            int cell = board.mostConstrainedCell();
+            if (cell < 0) {
+                count.found(board);
+                return;
+            }
+
+            List<Branch> children = new ArrayList<>();
+            for (long mask = board.candidates(cell); mask != 0; mask &= mask - 1) {
+                ConstraintBoard child = new ConstraintBoard(board.box());
+                child.copyFrom(board);
+                child.place(cell, Long.numberOfTrailingZeros(mask) + 1);
+                count.nodes.incrementAndGet();
+                children.add(new Branch(count, child, depth + 1));
+            }
+            invokeAll(children);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package solver;
+
+/**
+ * Receives every step of a search as it happens: each digit placed and each digit taken
+ * back when its branch fails. Returning false from either method stops the search.
+ */
+public interface SolveListener {
+
+    boolean placed(int cell, int num);
+
+    boolean removed(int cell, int num);
+}
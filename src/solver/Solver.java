@@ -0,0 +1,41 @@
+package solver;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A search strategy. Every implementation solves a {@link ConstraintBoard} in place, reports
+ * its steps to an optional {@link SolveListener} and stops when the cancel check fires, leaving
+ * the board at its givens whenever it returns false. Instances keep reusable search state and
+ * are not thread-safe; create one per thread through {@link Strategy#create()}.
+ */
+public interface Solver {
+
+    BooleanSupplier NEVER = () -> false;
+
+    boolean solve(ConstraintBoard board, SolveListener listener, BooleanSupplier cancelCheck);
+
+    default boolean solve(ConstraintBoard board) {
+        return solve(board, null, NEVER);
+    }
+
+    default boolean solve(ConstraintBoard board, BooleanSupplier cancelCheck) {
+        return solve(board, null, cancelCheck);
+    }
+
+    /** Search nodes (digits tried on a guess) in the last solve. */
+    long nodes();
+
+    /** Guessed digits taken back in the last solve because their branch failed. */
+    long backtracks();
+
+    /** Deepest level the last solve reached, one level per guessed cell on the search path. */
+    int maxDepth();
+
+    /** Digits filled in by propagation rather than guessed in the last solve; 0 for strategies without it. */
+    default long propagations() {
+        return 0;
+    }
+
+    /** True if the last solve stopped because it was cancelled. */
+    boolean wasCancelled();
+}
@@ -0,0 +1,255 @@
+package solver;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Live counters for a run of solves: search nodes, backtracks, deepest search path,
+ * propagated digits, puzzles finished and the time to the first solution. Any number of
+ * solver threads feed one instance while a monitor reads {@link #snapshot()}s; the GUI
+ * panel, the headless JSON reporter and JMX (see {@link SolverMetricsMXBean}) all read it.
+ *
+ * The solvers only bump plain fields of their own. Each thread feeds the shared counters
+ * through a {@link Probe}, which adds a solve's counts to striped {@link LongAdder}s when it
+ * ends. For long solves the probe can also wrap the cancellation check, which every strategy
+ * polls once per 256 nodes, and publish at that rate. That puts a call into the search loop,
+ * which costs the naive solver about 7% when nothing else is polled, so batch solving of
+ * many short puzzles publishes per puzzle only.
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+
+    private final LongAdder puzzles = new LongAdder();
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAdder propagations = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final AtomicLong firstSolution = new AtomicLong(-1); // Nanoseconds after start, -1 = none yet
+    private volatile long startNanos = System.nanoTime();
+
+    /** A new feed for one solver thread. */
+    public Probe probe() {
+        return new Probe();
+    }
+
+    /** Zeroes every counter and restarts the clock. */
+    @Override
+    public void reset() {
+        puzzles.reset();
+        solved.reset();
+        nodes.reset();
+        backtracks.reset();
+        propagations.reset();
+        maxDepth.reset();
+        firstSolution.set(-1);
+        startNanos = System.nanoTime();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(System.nanoTime() - startNanos, puzzles.sum(), solved.sum(), nodes.sum(),
+                backtracks.sum(), propagations.sum(), (int) maxDepth.get(), firstSolution.get());
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * {@code sudoku:type=SolverMetrics,name="<name>"}; the name is quoted, quotes included.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("sudoku:type=SolverMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getPuzzles() {
+        return puzzles.sum();
+    }
+
+    @Override
+    public long getSolved() {
+        return solved.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getBacktracks() {
+        return backtracks.sum();
+    }
+
+    @Override
+    public long getPropagations() {
+        return propagations.sum();
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return (int) maxDepth.get();
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        return snapshot().nodesPerSecond(null);
+    }
+
+    @Override
+    public double getFirstSolutionMillis() {
+        long nanos = firstSolution.get();
+        return nanos < 0 ? -1 : nanos / 1e6;
+    }
+
+    @Override
+    public double getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1e6;
+    }
+
+    /**
+     * One thread's feed into the metrics. Not thread-safe: keep one per solver thread, call
+     * {@link #begin} before each solve (passing its result to the solve as the cancellation
+     * check for live counts), and {@link #end} with the outcome.
+     */
+    public final class Probe implements BooleanSupplier {
+        private Solver solver;
+        private BooleanSupplier cancelCheck = Solver.NEVER;
+        private Thread owner;
+        private long nodesSeen;
+        private long backtracksSeen;
+        private long propagationsSeen;
+
+        private Probe() {
+        }
+
+        /** Starts following a solve by {@code solver}, whose counts are published when it ends. */
+        public void begin(Solver solver) {
+            begin(solver, Solver.NEVER);
+        }
+
+        /**
+         * Starts following a solve by {@code solver}; solving with the returned cancellation
+         * check publishes its counts while it runs.
+         */
+        public BooleanSupplier begin(Solver solver, BooleanSupplier cancelCheck) {
+            this.solver = solver;
+            this.cancelCheck = cancelCheck;
+            this.owner = Thread.currentThread();
+            nodesSeen = 0;
+            backtracksSeen = 0;
+            propagationsSeen = 0;
+            return this;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            // Parallel search polls from its pool threads; only the solving thread may read the solver
+            if (Thread.currentThread() == owner) publish();
+            return cancelCheck.getAsBoolean();
+        }
+
+        /** Adds what the solver counted since the last call. Only call from the solving thread, e.g. from a listener. */
+        public void publish() {
+            long n = solver.nodes();
+            nodes.add(n - nodesSeen);
+            nodesSeen = n;
+            long b = solver.backtracks();
+            backtracks.add(b - backtracksSeen);
+            backtracksSeen = b;
+            long p = solver.propagations();
+            propagations.add(p - propagationsSeen);
+            propagationsSeen = p;
+            maxDepth.accumulate(solver.maxDepth());
+        }
+
+        /** Publishes the rest of the solve's counts and counts the puzzle as finished. */
+        public void end(boolean isSolved) {
+            publish();
+            puzzles.increment();
+            if (isSolved) {
+                solved.increment();
+                if (firstSolution.get() < 0) firstSolution.compareAndSet(-1, System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    /** The counters at one moment. */
+    public static final class Snapshot {
+        private final long elapsedNanos;
+        private final long puzzles;
+        private final long solved;
+        private final long nodes;
+        private final long backtracks;
+        private final long propagations;
+        private final int maxDepth;
+        private final long firstSolutionNanos;
+
+        Snapshot(long elapsedNanos, long puzzles, long solved, long nodes, long backtracks, long propagations,
+                 int maxDepth, long firstSolutionNanos) {
+            this.elapsedNanos = elapsedNanos;
+            this.puzzles = puzzles;
+            this.solved = solved;
+            this.nodes = nodes;
+            this.backtracks = backtracks;
+            this.propagations = propagations;
+            this.maxDepth = maxDepth;
+            this.firstSolutionNanos = firstSolutionNanos;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long puzzles() {
+            return puzzles;
+        }
+
+        public long solved() {
+            return solved;
+        }
+
+        public long nodes() {
+            return nodes;
+        }
+
+        public long backtracks() {
+            return backtracks;
+        }
+
+        public long propagations() {
+            return propagations;
+        }
+
+        public int maxDepth() {
+            return maxDepth;
+        }
+
+        /** Nanoseconds from the start to the first solved puzzle, or -1 if none is solved yet. */
+        public long firstSolutionNanos() {
+            return firstSolutionNanos;
+        }
+
+        /** Node rate since {@code previous}, or since the start if it is null. */
+        public double nodesPerSecond(Snapshot previous) {
+            long elapsed = elapsedNanos - (previous == null ? 0 : previous.elapsedNanos);
+            long count = nodes - (previous == null ? 0 : previous.nodes);
+            return elapsed <= 0 ? 0 : count * 1e9 / elapsed;
+        }
+
+        /** One JSON object on a single line; the node rate is taken since {@code previous} as in {@link #nodesPerSecond}. */
+        public String toJson(Snapshot previous) {
+            return String.format(Locale.ROOT,
+                    "{\"elapsed_ms\":%.1f,\"puzzles\":%d,\"solved\":%d,\"nodes\":%d,\"backtracks\":%d,"
+                            + "\"max_depth\":%d,\"propagations\":%d,\"nodes_per_sec\":%.0f,\"first_solution_ms\":%s}",
+                    elapsedNanos / 1e6, puzzles, solved, nodes, backtracks, maxDepth, propagations,
+                    nodesPerSecond(previous),
+                    firstSolutionNanos < 0 ? "null" : String.format(Locale.ROOT, "%.3f", firstSolutionNanos / 1e6));
+        }
+    }
+}
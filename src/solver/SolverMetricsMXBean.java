@@ -0,0 +1,31 @@
+package solver;
+
+/**
+ * JMX view of a {@link SolverMetrics}, registered under
+ * {@code sudoku:type=SolverMetrics,name="<name>"} by {@link SolverMetrics#register}.
+ * Every attribute is a running total since the metrics were created or last reset, except
+ * {@code NodesPerSecond}, which is the average over that time.
+ */
+public interface SolverMetricsMXBean {
+
+    long getPuzzles();
+
+    long getSolved();
+
+    long getNodes();
+
+    long getBacktracks();
+
+    long getPropagations();
+
+    int getMaxDepth();
+
+    double getNodesPerSecond();
+
+    /** Milliseconds from the start to the first solved puzzle, or -1 if none is solved yet. */
+    double getFirstSolutionMillis();
+
+    double getElapsedMillis();
+
+    void reset();
+}
@@ -0,0 +1,44 @@
+package solver;
+
+import java.util.function.Supplier;
+
+/** The available search strategies, with the names used in the GUI and on the command line. */
+public enum Strategy {
+
+    NAIVE("naive", "Naive backtracking", BacktrackingSolver::new),
+    MRV("mrv", "Fewest candidates first (MRV)", MrvSolver::new),
+    PROPAGATION("propagation", "MRV + naked/hidden singles", PropagatingSolver::new),
+    DANCING_LINKS("dlx", "Dancing links (exact cover)", DancingLinksSolver::new);
+
+    private final String id;
+    private final String displayName;
+    private final Supplier<Solver> factory;
+
+    Strategy(String id, String displayName, Supplier<Solver> factory) {
+        this.id = id;
+        this.displayName = displayName;
+        this.factory = factory;
+    }
+
+    /** A fresh solver; each thread needs its own. */
+    public Solver create() {
+        return factory.get();
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /** Looks a strategy up by its command-line id. */
+    public static Strategy fromId(String id) {
+        for (Strategy strategy : values()) {
+            if (strategy.id.equals(id)) return strategy;
+        }
+        throw new IllegalArgumentException("Unknown strategy: " + id);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,53 @@
+package solver;
+
+/**
+ * Layout of a solve trace file, shared by {@link TraceWriter} and {@link TraceReader}.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "SDKT"
+ *      4     4  format version
+ *      8     4  box size (3 for 9x9)
+ *     12     4  number of cells
+ *     16     8  number of events
+ *     24  cells  givens, one byte per cell (0 = empty)
+ *      -     -  events, one big-endian int each, from {@link #eventsOffset} (112 for 9x9)
+ * </pre>
+ *
+ * An event packs the cell into bits 8-30, the digit into bits 0-7 and sets bit 31 when the
+ * digit was taken back rather than placed.
+ */
+public final class TraceFormat {
+
+    public static final int MAGIC = 0x53444B54; // "SDKT"
+    public static final int VERSION = 2;
+    public static final int EVENT_COUNT_OFFSET = 16;
+    public static final int GIVENS_OFFSET = 24;
+    public static final int EVENT_BYTES = Integer.BYTES;
+
+    private static final int REMOVED_BIT = 1 << 31;
+
+    private TraceFormat() {
+    }
+
+    /** File offset of the first event: the header and givens, rounded up to 8 bytes. */
+    public static int eventsOffset(int cells) {
+        return (GIVENS_OFFSET + cells + 7) & ~7;
+    }
+
+    public static int encode(int cell, int num, boolean removed) {
+        return (removed ? REMOVED_BIT : 0) | (cell << 8) | num;
+    }
+
+    public static int cell(int event) {
+        return (event & ~REMOVED_BIT) >>> 8;
+    }
+
+    public static int num(int event) {
+        return event & 0xFF;
+    }
+
+    public static boolean isRemoval(int event) {
+        return event < 0;
+    }
+}
@@ -0,0 +1,127 @@
+package solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access to a recorded trace. The event area is memory-mapped, and opening the trace
+ * makes one pass over it to store a board snapshot every {@link #CHECKPOINT_INTERVAL} events.
+ * Reconstructing the board at any position then means copying the nearest earlier checkpoint
+ * and replaying fewer than {@code CHECKPOINT_INTERVAL} events, however long the trace is.
+ */
+public class TraceReader implements Closeable {
+
+    public static final int CHECKPOINT_INTERVAL = 4096;
+
+    // Mapped in segments so traces beyond 2 GB still work
+    private static final int SEGMENT_EVENTS = 1 << 26;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long events;
+    private final int box;
+    private final int cells;
+    private final byte[] givens;
+    private final byte[][] checkpoints;
+
+    public TraceReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(TraceFormat.GIVENS_OFFSET);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < TraceFormat.GIVENS_OFFSET || header.getInt() != TraceFormat.MAGIC) {
+                throw new IOException("Not a solve trace: " + path);
+            }
+            int version = header.getInt();
+            if (version != TraceFormat.VERSION) {
+                throw new IOException("Unsupported trace version " + version + ": " + path);
+            }
+            box = header.getInt();
+            cells = header.getInt();
+            events = header.getLong();
+            if (box < ConstraintBoard.MIN_BOX || box > ConstraintBoard.MAX_BOX || cells != box * box * box * box) {
+                throw new IOException("Unsupported board in trace: " + path);
+            }
+            givens = new byte[cells];
+            channel.read(ByteBuffer.wrap(givens), TraceFormat.GIVENS_OFFSET);
+            long eventsOffset = TraceFormat.eventsOffset(cells);
+
+            if (eventsOffset + events * TraceFormat.EVENT_BYTES > channel.size()) {
+                throw new IOException("Trace is truncated: " + path);
+            }
+            segments = new MappedByteBuffer[(int) ((events + SEGMENT_EVENTS - 1) / SEGMENT_EVENTS)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i * SEGMENT_EVENTS;
+                long count = Math.min(SEGMENT_EVENTS, events - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        eventsOffset + first * TraceFormat.EVENT_BYTES, count * TraceFormat.EVENT_BYTES);
+            }
+            checkpoints = buildCheckpoints();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private byte[][] buildCheckpoints() {
+        byte[][] result = new byte[(int) (events / CHECKPOINT_INTERVAL) + 1][];
+        byte[] board = givens.clone();
+        result[0] = board.clone();
+        for (long i = 0; i < events; i++) {
+            apply(event(i), board);
+            if ((i + 1) % CHECKPOINT_INTERVAL == 0) {
+                result[(int) ((i + 1) / CHECKPOINT_INTERVAL)] = board.clone();
+            }
+        }
+        return result;
+    }
+
+    private static void apply(int event, byte[] board) {
+        board[TraceFormat.cell(event)] = TraceFormat.isRemoval(event) ? 0 : (byte) TraceFormat.num(event);
+    }
+
+    public long eventCount() {
+        return events;
+    }
+
+    public int box() {
+        return box;
+    }
+
+    public int cellCount() {
+        return cells;
+    }
+
+    public int given(int cell) {
+        return givens[cell];
+    }
+
+    /** The packed event at {@code index}; decode it with {@link TraceFormat}. */
+    public int event(long index) {
+        return segments[(int) (index / SEGMENT_EVENTS)].getInt((int) (index % SEGMENT_EVENTS) * TraceFormat.EVENT_BYTES);
+    }
+
+    /** Fills {@code values} with the board after the first {@code position} events (0 = the givens). */
+    public void boardAt(long position, int[] values) {
+        position = Math.max(0, Math.min(position, events));
+        byte[] checkpoint = checkpoints[(int) (position / CHECKPOINT_INTERVAL)];
+        for (int cell = 0; cell < cells; cell++) {
+            values[cell] = checkpoint[cell];
+        }
+        for (long i = position - position % CHECKPOINT_INTERVAL; i < position; i++) {
+            int event = event(i);
+            values[TraceFormat.cell(event)] = TraceFormat.isRemoval(event) ? 0 : TraceFormat.num(event);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
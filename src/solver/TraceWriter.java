@@ -0,0 +1,99 @@
+package solver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records a solve as a {@link SolveListener}: every placement and removal is appended as one
+ * int to a memory-mapped trace file (see {@link TraceFormat}). The mapping grows in doubling
+ * regions, so recording costs a buffer write per step and no system call. Use one writer per solve.
+ */
+public class TraceWriter implements SolveListener, Closeable {
+
+    private static final long FIRST_REGION_BYTES = 1L << 20;
+    private static final long MAX_REGION_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int eventsOffset;
+    private MappedByteBuffer region;
+    private long regionEnd;
+    private long regionBytes = FIRST_REGION_BYTES;
+    private long events;
+
+    /** Creates (or overwrites) {@code path} with the header and {@code givens} as the starting board. */
+    public TraceWriter(Path path, ConstraintBoard givens) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // The header is mapped as well, so closing needs no interruptible channel write
+        eventsOffset = TraceFormat.eventsOffset(givens.cellCount());
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, eventsOffset);
+        header.putInt(TraceFormat.MAGIC);
+        header.putInt(TraceFormat.VERSION);
+        header.putInt(givens.box());
+        header.putInt(givens.cellCount());
+        header.putLong(0);
+        for (int cell = 0; cell < givens.cellCount(); cell++) {
+            header.put((byte) givens.get(cell));
+        }
+        regionEnd = eventsOffset;
+        mapNextRegion();
+    }
+
+    @Override
+    public boolean placed(int cell, int num) {
+        append(TraceFormat.encode(cell, num, false));
+        return true;
+    }
+
+    @Override
+    public boolean removed(int cell, int num) {
+        append(TraceFormat.encode(cell, num, true));
+        return true;
+    }
+
+    private void append(int event) {
+        if (!region.hasRemaining()) mapNextRegion();
+        region.putInt(event);
+        events++;
+    }
+
+    private void mapNextRegion() {
+        try {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionEnd, regionBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not extend trace file", e);
+        }
+        regionEnd += regionBytes;
+        regionBytes = Math.min(regionBytes * 2, MAX_REGION_BYTES);
+    }
+
+    public long eventCount() {
+        return events;
+    }
+
+    /**
+     * Writes the final event count into the header and trims the unused tail of the file. The
+     * mapped pages are written back by the OS; nothing is forced to disk.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            header.putLong(TraceFormat.EVENT_COUNT_OFFSET, events);
+            region = null;
+            try {
+                channel.truncate(eventsOffset + events * TraceFormat.EVENT_BYTES);
+            } catch (IOException e) {
+                // Some platforms refuse to shrink a file that is still mapped; readers go by
+                // the event count in the header, so the slack at the end is harmless
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
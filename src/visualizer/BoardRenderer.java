@@ -0,0 +1,144 @@
+package visualizer;
+
+import solver.PuzzleFormat;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Paints a board of any size cell by cell, digits above 9 written as letters like
+ * {@link PuzzleFormat} does. The digit font is created once and each digit's glyph
+ * layout is cached (per font render context), so painting a cell is a rectangle fill and a
+ * cached glyph draw with no per-paint allocation. Used by {@link BoardView} and by the
+ * simple {@link SudokuSolverVisualizer} panel.
+ */
+public class BoardRenderer {
+
+    private static final Color THIN_LINE = Color.LIGHT_GRAY;
+    private static final Color THICK_LINE = Color.BLACK;
+    private static final Stroke THICK_STROKE = new BasicStroke(2f);
+
+    private final int box;
+    private final int size;
+    private final int cellSize;
+    private final boolean boxLines;
+    private final Font font;
+
+    private FontRenderContext glyphContext;
+    private final GlyphVector[] glyphs;
+    private final float[] glyphX;
+    private final float[] glyphY;
+
+    /**
+     * @param box      box size; the board is {@code box * box} cells wide
+     * @param boxLines whether to draw the box boundaries thicker than the cell lines
+     */
+    public BoardRenderer(int box, int cellSize, int fontSize, boolean boxLines) {
+        this.box = box;
+        this.size = box * box;
+        this.glyphs = new GlyphVector[size + 1];
+        this.glyphX = new float[size + 1];
+        this.glyphY = new float[size + 1];
+        this.cellSize = cellSize;
+        this.boxLines = boxLines;
+        this.font = new Font("Arial", Font.BOLD, fontSize);
+    }
+
+    public int box() {
+        return box;
+    }
+
+    /** Rows and columns on the board. */
+    public int size() {
+        return size;
+    }
+
+    public int cellSize() {
+        return cellSize;
+    }
+
+    /** Width and height of the whole board in pixels. */
+    public int boardSize() {
+        return size * cellSize;
+    }
+
+    public Rectangle cellBounds(int row, int col, Rectangle into) {
+        into.setBounds(col * cellSize, row * cellSize, cellSize, cellSize);
+        return into;
+    }
+
+    /** Fills the cell and draws its digit (0 = none). Grid lines are drawn separately by {@link #paintGrid}. */
+    public void paintCell(Graphics2D g, int row, int col, int num, Color background, Color foreground) {
+        int x = col * cellSize;
+        int y = row * cellSize;
+        g.setColor(background);
+        g.fillRect(x, y, cellSize, cellSize);
+        if (num != 0) {
+            GlyphVector glyph = glyph(g, num);
+            g.setColor(foreground);
+            g.drawGlyphVector(glyph, x + glyphX[num], y + glyphY[num]);
+        }
+    }
+
+    /** Draws the cell lines and box lines over the rows and columns in {@code [fromRow, toRow] x [fromCol, toCol]}. */
+    public void paintGrid(Graphics2D g, int fromRow, int toRow, int fromCol, int toCol) {
+        int top = fromRow * cellSize;
+        int bottom = (toRow + 1) * cellSize;
+        int left = fromCol * cellSize;
+        int right = (toCol + 1) * cellSize;
+
+        g.setColor(THIN_LINE);
+        for (int i = fromCol; i <= toCol + 1; i++) {
+            g.drawLine(i * cellSize, top, i * cellSize, bottom);
+        }
+        for (int i = fromRow; i <= toRow + 1; i++) {
+            g.drawLine(left, i * cellSize, right, i * cellSize);
+        }
+        if (!boxLines) return;
+
+        Stroke stroke = g.getStroke();
+        g.setStroke(THICK_STROKE);
+        g.setColor(THICK_LINE);
+        for (int i = fromCol; i <= toCol + 1; i++) {
+            if (i % box == 0) g.drawLine(i * cellSize, top, i * cellSize, bottom);
+        }
+        for (int i = fromRow; i <= toRow + 1; i++) {
+            if (i % box == 0) g.drawLine(left, i * cellSize, right, i * cellSize);
+        }
+        g.setStroke(stroke);
+    }
+
+    public void paintGrid(Graphics2D g) {
+        paintGrid(g, 0, size - 1, 0, size - 1);
+    }
+
+    /** Turns on text antialiasing; call once per paint before painting cells. */
+    public void prepare(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(font);
+    }
+
+    private GlyphVector glyph(Graphics2D g, int num) {
+        FontRenderContext context = g.getFontRenderContext();
+        if (!context.equals(glyphContext)) {
+            // Lay the digits out again only when the render context (scale, hints) changes
+            glyphContext = context;
+            for (int d = 1; d <= size; d++) {
+                GlyphVector glyph = font.createGlyphVector(context, String.valueOf(PuzzleFormat.symbol(d)));
+                Rectangle2D bounds = glyph.getVisualBounds();
+                glyphs[d] = glyph;
+                glyphX[d] = (float) ((cellSize - bounds.getWidth()) / 2 - bounds.getX());
+                glyphY[d] = (float) ((cellSize - bounds.getHeight()) / 2 - bounds.getY());
+            }
+        }
+        return glyphs[num];
+    }
+}
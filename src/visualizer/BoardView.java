@@ -0,0 +1,294 @@
+package visualizer;
+
+import solver.PuzzleFormat;
+
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Editable Sudoku board painted directly, replacing a grid of 81 text fields. Each cell has a
+ * digit, a "given" flag and a highlight style. Changing a cell only repaints that cell's
+ * rectangle, and painting only touches the cells inside the clip, so a solver streaming
+ * updates costs one small repaint per changed cell per frame. Swing's back buffer keeps it
+ * flicker-free.
+ *
+ * Editing: click a cell (or move with the arrow keys) and type 1-9, or a letter for the
+ * digits above 9 on larger boards (A = 10 and so on, as in {@link PuzzleFormat}); Backspace,
+ * Delete, Space or 0 clears it. Keys pressed before any cell is selected act on the top-left
+ * cell. Given cells and a view set to non-editable ignore typing.
+ * Every change made by typing is reported to the {@link EditListener}, if one is set.
+ */
+public class BoardView extends JComponent {
+
+    // Cell highlight styles
+    public static final int PLAIN = 0;
+    public static final int GIVEN = 1;
+    public static final int TRIED = 2;
+    public static final int BACKTRACKED = 3;
+    public static final int SOLVED = 4;
+    public static final int INVALID = 5;
+    public static final int HINT = 6;
+
+    private static final Color[] BACKGROUNDS = {
+            Color.WHITE,
+            new Color(230, 230, 230),
+            Color.YELLOW,
+            Color.RED,
+            new Color(150, 255, 150),
+            Color.RED,
+            new Color(170, 210, 255),
+    };
+    private static final Color SELECTION = new Color(0, 120, 215);
+    private static final Color MARKER = new Color(200, 30, 30);
+
+    private final BoardRenderer renderer;
+    private final int size;
+    private final int[] values;
+    private final boolean[] given;
+    private final int[] styles;
+    private final boolean[] marked;
+    private final Rectangle dirty = new Rectangle();
+    private final Rectangle clip = new Rectangle();
+    private int selected = -1;
+    private boolean editable = true;
+    private EditListener editListener;
+
+    /** Told about every cell the user changes by typing, after the view shows the new digit. */
+    public interface EditListener {
+        void cellEdited(int cell, int oldValue, int newValue);
+    }
+
+    /** A board of {@code box * box} rows and columns. */
+    public BoardView(int box, int cellSize, int fontSize) {
+        this.renderer = new BoardRenderer(box, cellSize, fontSize, true);
+        this.size = renderer.size();
+        this.values = new int[size * size];
+        this.given = new boolean[size * size];
+        this.styles = new int[size * size];
+        this.marked = new boolean[size * size];
+        int pixels = renderer.boardSize() + 1;
+        setPreferredSize(new Dimension(pixels, pixels));
+        setDoubleBuffered(true);
+        setOpaque(true);
+        setFocusable(true);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                int cell = cellAt(e.getX(), e.getY());
+                if (cell >= 0) {
+                    select(cell);
+                }
+            }
+        });
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                handleKey(e);
+            }
+        });
+        addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                repaintCell(selected);
+            }
+
+            @Override
+            public void focusGained(FocusEvent e) {
+                repaintCell(selected);
+            }
+        });
+    }
+
+    public int box() {
+        return renderer.box();
+    }
+
+    /** Rows, columns and digits on the board. */
+    public int gridSize() {
+        return size;
+    }
+
+    public int cellCount() {
+        return values.length;
+    }
+
+    public int getValue(int cell) {
+        return values[cell];
+    }
+
+    public void setValue(int cell, int num) {
+        if (values[cell] != num) {
+            values[cell] = num;
+            repaintCell(cell);
+        }
+    }
+
+    public boolean isGiven(int cell) {
+        return given[cell];
+    }
+
+    /** Marks a cell as part of the puzzle: it is shown grey and cannot be edited. */
+    public void setGiven(int cell, boolean isGiven) {
+        given[cell] = isGiven;
+        setStyle(cell, isGiven ? GIVEN : PLAIN);
+    }
+
+    public int getStyle(int cell) {
+        return styles[cell];
+    }
+
+    public void setStyle(int cell, int style) {
+        if (styles[cell] != style) {
+            styles[cell] = style;
+            repaintCell(cell);
+        }
+    }
+
+    /** Puts the cell back to its resting style: grey for givens, white otherwise. */
+    public void resetStyle(int cell) {
+        setStyle(cell, given[cell] ? GIVEN : PLAIN);
+    }
+
+    public boolean isEditable() {
+        return editable;
+    }
+
+    public void setEditable(boolean editable) {
+        this.editable = editable;
+    }
+
+    /** The cell last clicked or moved to with the arrow keys, -1 if none yet. */
+    public int selectedCell() {
+        return selected;
+    }
+
+    public boolean isMarked(int cell) {
+        return marked[cell];
+    }
+
+    /** Shows or hides a small red dot in the cell's corner, such as for a breakpoint. */
+    public void setMarked(int cell, boolean isMarked) {
+        if (marked[cell] != isMarked) {
+            marked[cell] = isMarked;
+            repaintCell(cell);
+        }
+    }
+
+    public void setEditListener(EditListener listener) {
+        this.editListener = listener;
+    }
+
+    /** The cell under the point {@code (x, y)} in this view's coordinates, -1 if it is off the board. */
+    public int cellAt(int x, int y) {
+        if (x < 0 || y < 0) return -1;
+        int col = x / renderer.cellSize();
+        int row = y / renderer.cellSize();
+        return row < size && col < size ? row * size + col : -1;
+    }
+
+    private void select(int cell) {
+        int previous = selected;
+        selected = cell;
+        repaintCell(previous);
+        repaintCell(cell);
+    }
+
+    private void handleKey(KeyEvent e) {
+        if (selected < 0) {
+            select(0); // Typing before any click starts at the top-left cell
+        }
+        int row = selected / size;
+        int col = selected % size;
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_UP:
+                select(((row + size - 1) % size) * size + col);
+                return;
+            case KeyEvent.VK_DOWN:
+                select(((row + 1) % size) * size + col);
+                return;
+            case KeyEvent.VK_LEFT:
+                select(row * size + (col + size - 1) % size);
+                return;
+            case KeyEvent.VK_RIGHT:
+                select(row * size + (col + 1) % size);
+                return;
+            default:
+        }
+
+        if (!editable || given[selected]) return;
+        char ch = e.getKeyChar();
+        int num = PuzzleFormat.digit(ch);
+        if ((num < 0 || num > size) && size < 36) {
+            num = PuzzleFormat.digit(Character.toUpperCase(ch)); // Letters are not case-sensitive until 'a' is a digit
+        }
+        if (num > 0 && num <= size) {
+            edit(selected, num);
+        } else if (num == 0 || ch == ' ' || e.getKeyCode() == KeyEvent.VK_BACK_SPACE
+                || e.getKeyCode() == KeyEvent.VK_DELETE) {
+            edit(selected, 0);
+        }
+    }
+
+    private void edit(int cell, int num) {
+        int old = values[cell];
+        setValue(cell, num);
+        resetStyle(cell);
+        if (old != num && editListener != null) editListener.cellEdited(cell, old, num);
+    }
+
+    private void repaintCell(int cell) {
+        if (cell < 0) return;
+        renderer.cellBounds(cell / size, cell % size, dirty);
+        // Grow by the thick line half-width so box borders are redrawn too
+        repaint(dirty.x - 1, dirty.y - 1, dirty.width + 3, dirty.height + 3);
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        renderer.prepare(g);
+
+        clip.setBounds(0, 0, getWidth(), getHeight());
+        g.getClipBounds(clip);
+        int cellSize = renderer.cellSize();
+        int last = size - 1;
+        int fromRow = Math.max(0, clip.y / cellSize);
+        int toRow = Math.min(last, (clip.y + clip.height) / cellSize);
+        int fromCol = Math.max(0, clip.x / cellSize);
+        int toCol = Math.min(last, (clip.x + clip.width) / cellSize);
+
+        g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int col = fromCol; col <= toCol; col++) {
+                int cell = row * size + col;
+                renderer.paintCell(g, row, col, values[cell], BACKGROUNDS[styles[cell]], Color.BLACK);
+                if (marked[cell]) {
+                    renderer.cellBounds(row, col, dirty);
+                    int dot = Math.max(4, cellSize / 6);
+                    g.setColor(MARKER);
+                    g.fillOval(dirty.x + 3, dirty.y + 3, dot, dot);
+                }
+            }
+        }
+        renderer.paintGrid(g, fromRow, toRow, fromCol, toCol);
+
+        if (selected >= 0 && isFocusOwner()) {
+            renderer.cellBounds(selected / size, selected % size, dirty);
+            g.setColor(SELECTION);
+            g.drawRect(dirty.x + 2, dirty.y + 2, dirty.width - 4, dirty.height - 4);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package visualizer;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hand-off between a solver thread and the painting side. The solver records the latest
+ * value of each cell it touches; the UI drains whatever changed once per frame. Repeated
+ * writes to the same cell between two frames collapse into one update, so the UI does work
+ * proportional to the cells that changed, not to the number of solver steps.
+ *
+ * Writers never block and never allocate. There can be any number of writers but only one
+ * reader, which is expected to be the frame timer on the event dispatch thread.
+ */
+public class CellUpdateBuffer {
+
+    /** Update flag: the cell was cleared because its digit led to a dead end. */
+    public static final int BACKTRACKED = 1 << 16;
+    public static final int VALUE_MASK = 0xFFFF;
+
+    private final int cellCount;
+    private final AtomicIntegerArray values;
+    private final AtomicLongArray dirty;
+
+    public CellUpdateBuffer(int cellCount) {
+        this.cellCount = cellCount;
+        this.values = new AtomicIntegerArray(cellCount);
+        this.dirty = new AtomicLongArray((cellCount + 63) >>> 6);
+    }
+
+    /** Records that {@code cell} now holds {@code num} (0 = empty). */
+    public void placed(int cell, int num) {
+        values.set(cell, num);
+        markDirty(cell);
+    }
+
+    /** Records that {@code cell} was emptied by a backtrack. */
+    public void backtracked(int cell) {
+        values.set(cell, BACKTRACKED);
+        markDirty(cell);
+    }
+
+    private void markDirty(int cell) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        // Skip the atomic update when the reader has not picked the cell up yet
+        if ((dirty.get(word) & bit) == 0) {
+            dirty.getAndAccumulate(word, bit, (a, b) -> a | b);
+        }
+    }
+
+    public interface Consumer {
+        /** {@code update} is the digit, possibly or-ed with {@link #BACKTRACKED}. */
+        void cellChanged(int cell, int update);
+    }
+
+    /**
+     * Hands every cell changed since the last drain to {@code consumer}, with its latest value.
+     * Returns the number of cells reported.
+     */
+    public int drain(Consumer consumer) {
+        int count = 0;
+        for (int word = 0; word < dirty.length(); word++) {
+            // Clear the bits before reading values: a write racing with us re-marks the cell
+            for (long bits = dirty.getAndSet(word, 0); bits != 0; bits &= bits - 1) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                consumer.cellChanged(cell, values.get(cell));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int cellCount() {
+        return cellCount;
+    }
+}
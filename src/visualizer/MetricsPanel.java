@@ -0,0 +1,86 @@
+package visualizer;
+
+import solver.SolverMetrics;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import java.awt.GridLayout;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live search counters shown next to the board: nodes, backtracks, deepest level, digits
+ * filled in by propagation, the node rate and the time to the first solution. Each refresh
+ * reads one {@link SolverMetrics} snapshot; the rate covers the time since the last refresh.
+ */
+public class MetricsPanel extends JPanel {
+
+    private static final long REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(250); // Slower than frames so the rate is readable
+
+    private final JLabel nodes = valueLabel();
+    private final JLabel backtracks = valueLabel();
+    private final JLabel depth = valueLabel();
+    private final JLabel propagations = valueLabel();
+    private final JLabel rate = valueLabel();
+    private final JLabel firstSolution = valueLabel();
+
+    private SolverMetrics metrics;
+    private SolverMetrics.Snapshot previous;
+
+    public MetricsPanel() {
+        super(new GridLayout(0, 2, 10, 4));
+        setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createEmptyBorder(5, 0, 5, 5), BorderFactory.createTitledBorder("Search")));
+        addRow("Nodes", nodes);
+        addRow("Backtracks", backtracks);
+        addRow("Max depth", depth);
+        addRow("Propagations", propagations);
+        addRow("Nodes/s", rate);
+        addRow("First solution", firstSolution);
+        clear();
+    }
+
+    private static JLabel valueLabel() {
+        JLabel label = new JLabel();
+        label.setHorizontalAlignment(SwingConstants.RIGHT);
+        return label;
+    }
+
+    private void addRow(String name, JLabel value) {
+        add(new JLabel(name));
+        add(value);
+    }
+
+    /** Follows {@code metrics} from now on; null shows empty counters. */
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+        this.previous = null;
+        if (metrics == null) {
+            clear();
+        } else {
+            refresh(true);
+        }
+    }
+
+    /** Updates the counters, at most four times a second unless {@code force} is set. */
+    public void refresh(boolean force) {
+        if (metrics == null) return;
+        SolverMetrics.Snapshot now = metrics.snapshot();
+        if (!force && previous != null && now.elapsedNanos() - previous.elapsedNanos() < REFRESH_NANOS) return;
+
+        nodes.setText(String.format("%,d", now.nodes()));
+        backtracks.setText(String.format("%,d", now.backtracks()));
+        depth.setText(String.valueOf(now.maxDepth()));
+        propagations.setText(String.format("%,d", now.propagations()));
+        rate.setText(String.format("%,.0f", now.nodesPerSecond(previous)));
+        firstSolution.setText(now.firstSolutionNanos() < 0 ? "-" : String.format("%,.1f ms", now.firstSolutionNanos() / 1e6));
+        previous = now;
+    }
+
+    private void clear() {
+        for (JLabel label : new JLabel[]{nodes, backtracks, depth, propagations, rate, firstSolution}) {
+            label.setText("-");
+        }
+    }
+}
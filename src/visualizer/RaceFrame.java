@@ -0,0 +1,265 @@
+package visualizer;
+
+import solver.ConstraintBoard;
+import solver.PuzzleFormat;
+import solver.Solver;
+import solver.SolverMetrics;
+import solver.Strategy;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Races the search strategies against each other on one puzzle, each on its own thread and
+ * its own board. The solvers run with no listener and no delay, exactly as in a batch run.
+ * The window samples them once per frame. It reads each lane's board, which the solver updates
+ * in place, and the counters its {@link SolverMetrics.Probe} publishes every 256 nodes.
+ * Those reads race with the solver on purpose: a frame may show a board a few steps behind,
+ * but the search never waits for the display. Publishing from the cancellation poll also
+ * flushes the solver's writes at least that often.
+ *
+ * When a strategy finishes, the others are cancelled, unless "Let all finish" is ticked. Each
+ * lane shows its nodes, node rate, wall time and, at the end, the CPU time of its thread, so a
+ * race on fewer cores than strategies still compares fairly.
+ *
+ * Run on its own with: java -cp bin visualizer.RaceFrame [puzzle]
+ */
+public class RaceFrame extends JFrame {
+
+    private static final int FRAME_MS = 16;
+    private static final int LANE_PIXELS = 300;
+    private static final String DEFAULT_PUZZLE =
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..";
+
+    private final ConstraintBoard puzzle;
+    private final Lane[] lanes;
+    private final JButton startButton;
+    private final JButton stopButton;
+    private final JCheckBox allFinishBox;
+    private final JLabel statusLabel;
+    private int finishedCount;
+    private final Timer frameTimer = new Timer(FRAME_MS, new ActionListener() {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            renderFrame();
+        }
+    });
+
+    public RaceFrame(ConstraintBoard puzzle) {
+        this.puzzle = puzzle;
+
+        setTitle("Strategy Race");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setResizable(false);
+        setLayout(new BorderLayout());
+
+        statusLabel = new JLabel("Press Start to solve the puzzle with every strategy at once.");
+        statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        add(statusLabel, BorderLayout.NORTH);
+
+        Strategy[] strategies = Strategy.values();
+        lanes = new Lane[strategies.length];
+        JPanel lanePanel = new JPanel(new GridLayout(1, 0, 10, 0));
+        lanePanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(strategies[i]);
+            lanePanel.add(lanes[i].panel);
+        }
+        add(lanePanel, BorderLayout.CENTER);
+
+        startButton = new JButton("Start");
+        startButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                startRace();
+            }
+        });
+        stopButton = new JButton("Stop");
+        stopButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                stopRace();
+            }
+        });
+        stopButton.setEnabled(false);
+        allFinishBox = new JCheckBox("Let all finish");
+        allFinishBox.setToolTipText("Keep the other strategies running after the first one finishes");
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
+        controls.add(startButton);
+        controls.add(stopButton);
+        controls.add(allFinishBox);
+        add(controls, BorderLayout.SOUTH);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                stopRace();
+                frameTimer.stop();
+            }
+        });
+
+        pack();
+    }
+
+    private void startRace() {
+        startButton.setEnabled(false);
+        stopButton.setEnabled(true);
+        finishedCount = 0;
+        statusLabel.setText("Racing...");
+        for (Lane lane : lanes) {
+            lane.start();
+        }
+        frameTimer.start();
+    }
+
+    private void stopRace() {
+        for (Lane lane : lanes) {
+            lane.cancelled = true;
+        }
+    }
+
+    // Runs on the EDT once per frame while any lane is still solving
+    private void renderFrame() {
+        for (Lane lane : lanes) {
+            lane.render();
+        }
+        if (finishedCount == lanes.length) {
+            frameTimer.stop();
+            startButton.setEnabled(true);
+            stopButton.setEnabled(false);
+        }
+    }
+
+    // Called on the EDT, in finishing order
+    private void finished(Lane lane) {
+        finishedCount++;
+        lane.rank = finishedCount;
+        if (finishedCount == 1) {
+            statusLabel.setText(lane.strategy + (lane.solved ? " solved it first." : " finished first, without a solution."));
+            if (!allFinishBox.isSelected()) stopRace();
+        }
+    }
+
+    /** One strategy's board, counters and solving thread. */
+    private class Lane {
+        final Strategy strategy;
+        final JPanel panel = new JPanel(new BorderLayout(0, 4));
+        final BoardView boardView;
+        final JLabel statsLabel = new JLabel(" ");
+        final JLabel resultLabel = new JLabel(" ");
+        final ConstraintBoard board; // Written by the solver thread, sampled by the EDT
+        final SolverMetrics metrics = new SolverMetrics();
+        volatile boolean cancelled;
+        volatile boolean done;
+        boolean solved; // Read after done is seen
+        long cpuNanos = -1;
+        long endNanos;
+        int rank; // Finishing position once rendered as finished, 0 before
+        private Thread thread;
+        private long startNanos;
+        private SolverMetrics.Snapshot previous;
+
+        Lane(Strategy strategy) {
+            this.strategy = strategy;
+            this.board = new ConstraintBoard(puzzle.box());
+            int cellSize = Math.max(6, LANE_PIXELS / puzzle.size());
+            boardView = new BoardView(puzzle.box(), cellSize, Math.max(6, cellSize / 2));
+            boardView.setEditable(false);
+            showPuzzle();
+
+            JLabel title = new JLabel(strategy.toString());
+            title.setFont(title.getFont().deriveFont(Font.BOLD));
+            JPanel labels = new JPanel(new GridLayout(0, 1));
+            labels.add(statsLabel);
+            labels.add(resultLabel);
+            panel.add(title, BorderLayout.NORTH);
+            panel.add(boardView, BorderLayout.CENTER);
+            panel.add(labels, BorderLayout.SOUTH);
+        }
+
+        private void showPuzzle() {
+            for (int cell = 0; cell < puzzle.cellCount(); cell++) {
+                boardView.setValue(cell, puzzle.get(cell));
+                boardView.setGiven(cell, puzzle.get(cell) != 0);
+            }
+        }
+
+        void start() {
+            board.copyFrom(puzzle);
+            showPuzzle();
+            metrics.reset();
+            previous = null;
+            cancelled = false;
+            done = false;
+            rank = 0;
+            resultLabel.setText(" ");
+            startNanos = System.nanoTime();
+            Solver solver = strategy.create();
+            SolverMetrics.Probe probe = metrics.probe();
+            thread = new Thread(() -> {
+                ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                long cpuStart = threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+                boolean result = false;
+                try {
+                    result = solver.solve(board, null, probe.begin(solver, () -> cancelled));
+                } finally {
+                    probe.end(result);
+                    endNanos = System.nanoTime();
+                    if (cpuStart >= 0) cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+                    solved = result;
+                    done = true; // Publishes the fields above to the EDT
+                }
+            }, "race-" + strategy.id());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        // Copies the board and counters as they are right now; BoardView repaints only changed cells
+        void render() {
+            if (thread == null || rank > 0) return;
+            boolean finished = done;
+            for (int cell = 0; cell < board.cellCount(); cell++) {
+                boardView.setValue(cell, board.get(cell));
+            }
+            SolverMetrics.Snapshot now = metrics.snapshot();
+            long elapsed = (finished ? endNanos : System.nanoTime()) - startNanos;
+            statsLabel.setText(String.format("%,d nodes  %,.0f nodes/s  %,.1f ms", now.nodes(),
+                    finished ? now.nodes() / (elapsed / 1e9) : now.nodesPerSecond(previous), elapsed / 1e6));
+            previous = now;
+            if (!finished) return;
+
+            finished(this);
+            for (int cell = 0; cell < board.cellCount(); cell++) {
+                if (!boardView.isGiven(cell) && board.get(cell) != 0) boardView.setStyle(cell, BoardView.SOLVED);
+            }
+            String outcome = solved ? "solved" : cancelled ? "cancelled" : "no solution";
+            String cpu = cpuNanos >= 0 ? String.format(", %,.1f ms CPU", cpuNanos / 1e6) : "";
+            resultLabel.setText("#" + rank + " " + outcome + cpu);
+        }
+    }
+
+    public static void main(String[] args) {
+        ConstraintBoard puzzle = PuzzleFormat.parse(args.length > 0 ? args[0] : DEFAULT_PUZZLE);
+        if (puzzle == null) {
+            System.err.println("Usage: java -cp bin visualizer.RaceFrame [puzzle]");
+            System.err.println("  The puzzle is one line with '.' or '0' for empty cells, as in the puzzle files.");
+            System.exit(2);
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                RaceFrame frame = new RaceFrame(puzzle);
+                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                frame.setLocationRelativeTo(null);
+                frame.setVisible(true);
+            }
+        });
+    }
+}
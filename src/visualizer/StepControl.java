@@ -0,0 +1,157 @@
+package visualizer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hand-off that lets the UI pause, resume and single-step a solve running on another thread.
+ * The solver's listener calls {@link #awaitStep} after every placement or removal. The UI grants
+ * steps through the other methods, from any thread and at any time.
+ *
+ * Steps are permits in one atomic counter. Pausing sets it to zero, and each step through the
+ * gate uses one permit. {@link #resume} sets it to "unlimited". A blocked solver parks with
+ * {@link LockSupport}. Every grant updates the counter before it unparks the waiting thread,
+ * and the solver records itself as the waiter before it checks the counter. So a grant that
+ * arrives before the solver parks is never lost, which {@code wait}/{@code notify} cannot
+ * promise. Stopping at the next backtrack or at breakpoint cells, and cancelling, each turn on
+ * a bit in one word of flags that the gate reads once per step. With no flag set and the solve
+ * running freely, a step costs two volatile reads: the flags and the permit counter.
+ */
+public class StepControl {
+
+    private static final long UNLIMITED = Long.MAX_VALUE;
+
+    // Conditions checked on every step while set
+    private static final int STOP_AT_BACKTRACK = 1;
+    private static final int STOP_AT_BREAKPOINT = 2;
+    private static final int CANCELLED = 4;
+
+    private final AtomicLong permits;
+    private final AtomicInteger stops = new AtomicInteger();
+    private volatile long[] breakpoints; // One bit per cell; replaced, never modified, when it changes
+    private volatile Thread waiter;
+    private final Runnable beforeWait;
+
+    /**
+     * A gate for boards of {@code cellCount} cells that starts paused or running.
+     * {@code beforeWait}, if not null, runs on the solving thread each time it is about to block.
+     */
+    public StepControl(int cellCount, boolean paused, Runnable beforeWait) {
+        this.permits = new AtomicLong(paused ? 0 : UNLIMITED);
+        this.breakpoints = new long[(cellCount + 63) >>> 6];
+        this.beforeWait = beforeWait;
+    }
+
+    /**
+     * Called by the solving thread after each step. Returns at once while running, otherwise
+     * blocks until a step is granted. Returns false if the solve should stop: the gate was
+     * cancelled or the thread interrupted (its interrupt status is kept).
+     */
+    public boolean awaitStep(int cell, boolean removed) {
+        int active = stops.get();
+        if (active != 0) {
+            checkStops(active, cell, removed);
+            if ((active & CANCELLED) != 0) return false;
+        }
+        if (permits.get() == UNLIMITED) return true;
+        while (true) {
+            long available = permits.get();
+            if (isCancelled() || Thread.currentThread().isInterrupted()) return false;
+            if (available == UNLIMITED) return true;
+            if (available > 0) {
+                if (permits.compareAndSet(available, available - 1)) return true;
+                continue;
+            }
+            if (beforeWait != null) beforeWait.run();
+            waiter = Thread.currentThread();
+            // Checked again after publishing the waiter: a grant made before this point is seen
+            // here, and one made after it unparks us
+            if (permits.get() == 0 && !isCancelled()) LockSupport.park(this);
+            waiter = null;
+        }
+    }
+
+    private void checkStops(int active, int cell, boolean removed) {
+        if (removed && (active & STOP_AT_BACKTRACK) != 0) {
+            stops.getAndUpdate(s -> s & ~STOP_AT_BACKTRACK);
+            permits.set(0);
+        } else if (!removed && (active & STOP_AT_BREAKPOINT) != 0
+                && (breakpoints[cell >>> 6] & (1L << cell)) != 0) {
+            permits.set(0);
+        }
+    }
+
+    /** Stops the solve at its next step. */
+    public void pause() {
+        permits.set(0);
+    }
+
+    /** Lets the solve run freely again. */
+    public void resume() {
+        grant(UNLIMITED);
+    }
+
+    /** Lets the solve take {@code count} more steps and then pause, whether it was paused or running. */
+    public void step(long count) {
+        permits.getAndUpdate(available -> available == UNLIMITED || available + count < 0 ? count : available + count);
+        unparkWaiter();
+    }
+
+    /** Runs freely until the search next takes a digit back, and pauses there. */
+    public void runToBacktrack() {
+        stops.getAndUpdate(s -> s | STOP_AT_BACKTRACK);
+        grant(UNLIMITED);
+    }
+
+    /** Sets or clears a breakpoint: the solve pauses whenever a digit is placed into {@code cell}. */
+    public synchronized void setBreakpoint(int cell, boolean enabled) {
+        long[] updated = breakpoints.clone();
+        if (enabled) {
+            updated[cell >>> 6] |= 1L << cell;
+        } else {
+            updated[cell >>> 6] &= ~(1L << cell);
+        }
+        breakpoints = updated;
+        boolean any = false;
+        for (long word : updated) {
+            any |= word != 0;
+        }
+        boolean enable = any;
+        stops.getAndUpdate(s -> enable ? s | STOP_AT_BREAKPOINT : s & ~STOP_AT_BREAKPOINT);
+    }
+
+    public boolean hasBreakpoint(int cell) {
+        return (breakpoints[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /** Makes the solving thread's {@link #awaitStep} return false, now or at its next step. */
+    public void cancel() {
+        stops.getAndUpdate(s -> s | CANCELLED);
+        unparkWaiter();
+    }
+
+    private boolean isCancelled() {
+        return (stops.get() & CANCELLED) != 0;
+    }
+
+    /** True if the solve will stop at its next step (or already has). */
+    public boolean isPaused() {
+        return permits.get() == 0;
+    }
+
+    /** True while the solving thread is blocked waiting for a step. */
+    public boolean isWaiting() {
+        return waiter != null;
+    }
+
+    private void grant(long count) {
+        permits.set(count);
+        unparkWaiter();
+    }
+
+    private void unparkWaiter() {
+        Thread thread = waiter;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+}
@@ -1,28 +1,41 @@
 package visualizer;
 
+import solver.ConstraintBoard;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 public class SudokuSolverVisualizer extends JPanel {
-    private static final int SIZE = 9;
+    private static final int BOARD_PIXELS = 450;
+    private static final int LARGEST_CELL = 50;
     private int[][] board;
+    private final ConstraintBoard constraints;
+    private final int size;
+    private final BoardRenderer renderer; // Shared font and glyph cache
     private boolean solved;
     private Timer timer;
 
+    /** A panel for {@code board}, which may be any size {@link ConstraintBoard} accepts. */
     public SudokuSolverVisualizer(int[][] board) {
         this.board = board;
+        this.constraints = new ConstraintBoard(board);
+        this.size = constraints.size();
+        int cellSize = Math.min(LARGEST_CELL, BOARD_PIXELS / size);
+        this.renderer = new BoardRenderer(constraints.box(), cellSize, Math.max(6, cellSize * 2 / 5), true);
         this.solved = false;
-        setPreferredSize(new Dimension(450, 450));
+        int pixels = renderer.boardSize() + 1;
+        setPreferredSize(new Dimension(pixels, pixels));
     }
 
     private boolean solveSudoku() {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 if (board[row][col] == 0) {
-                    for (int num = 1; num <= SIZE; num++) {
-                        if (isSafe(row, col, num)) {
+                    for (int num = 1; num <= size; num++) {
+                        if (constraints.isSafe(row, col, num)) {
+                            constraints.place(row, col, num);
                             board[row][col] = num;
                             repaint();
                             try {
@@ -33,6 +46,7 @@ public class SudokuSolverVisualizer extends JPanel {
                             if (solveSudoku()) {
                                 return true;
                             }
+                            constraints.remove(row, col);
                             board[row][col] = 0;
                         }
                     }
@@ -43,33 +57,18 @@ public class SudokuSolverVisualizer extends JPanel {
         return true;
     }
 
-    private boolean isSafe(int row, int col, int num) {
-        for (int x = 0; x < SIZE; x++) {
-            if (board[row][x] == num || board[x][col] == num || board[row - row % 3 + x / 3][col - col % 3 + x % 3] == num) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        g.setColor(Color.BLACK);
-
-        for (int i = 0; i <= SIZE; i++) {
-            g.drawLine(i * 50, 0, i * 50, 450);
-            g.drawLine(0, i * 50, 450, i * 50);
-        }
+        Graphics2D g2 = (Graphics2D) g;
+        renderer.prepare(g2);
 
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (board[row][col] != 0) {
-                    g.setFont(new Font("Arial", Font.BOLD, 20));
-                    g.drawString(String.valueOf(board[row][col]), col * 50 + 20, row * 50 + 30);
-                }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                renderer.paintCell(g2, row, col, board[row][col], Color.WHITE, Color.BLACK);
             }
         }
+        renderer.paintGrid(g2);
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,224 @@
+package visualizer;
+
+import solver.PuzzleFormat;
+import solver.TraceFormat;
+import solver.TraceReader;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Plays back a recorded solve trace without re-running the search. The slider seeks to any
+ * event, the buttons step one event at a time or jump to either end, and Play runs the trace
+ * forward at 1 to 1,000,000 events per second. Each frame rebuilds the board from the
+ * nearest {@link TraceReader} checkpoint, so seeking costs the same anywhere in the trace.
+ *
+ * Run on its own with: java -cp bin visualizer.TraceReplayFrame trace-file
+ */
+public class TraceReplayFrame extends JFrame {
+
+    private static final int FRAME_MS = 16;
+    private static final int MAX_SPEED_STEP = 60; // 10^(step / 10) events per second
+
+    private final TraceReader trace;
+    private final long events;
+    private final long sliderScale; // Events per slider unit, above 1 only for traces beyond 2^31 events
+    private final int[] values;
+
+    private final BoardView boardView;
+    private final JSlider positionSlider;
+    private final JSlider speedSlider;
+    private final JButton playButton;
+    private final JLabel statusLabel;
+
+    private long position;
+    private boolean playing;
+    private double pending; // Fraction of an event carried over between frames
+    private long lastFrame;
+    private boolean updatingSlider;
+    private final Timer playTimer = new Timer(FRAME_MS, new ActionListener() {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            advance();
+        }
+    });
+
+    public TraceReplayFrame(TraceReader trace, String title) {
+        this.trace = trace;
+        this.events = trace.eventCount();
+        this.sliderScale = Math.max(1, (events + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+        this.values = new int[trace.cellCount()];
+
+        setTitle("Replay - " + title);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setResizable(false);
+        setLayout(new BorderLayout());
+
+        statusLabel = new JLabel();
+        statusLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        add(statusLabel, BorderLayout.NORTH);
+
+        int cellSize = Math.min(50, 600 / (trace.box() * trace.box()));
+        boardView = new BoardView(trace.box(), cellSize, cellSize / 2);
+        boardView.setEditable(false);
+        for (int cell = 0; cell < values.length; cell++) {
+            boardView.setGiven(cell, trace.given(cell) != 0);
+        }
+        JPanel boardPanel = new JPanel(new BorderLayout());
+        boardPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        boardPanel.add(boardView, BorderLayout.CENTER);
+        add(boardPanel, BorderLayout.CENTER);
+
+        positionSlider = new JSlider(0, (int) (events / sliderScale), 0);
+        positionSlider.addChangeListener(e -> {
+            if (!updatingSlider) {
+                pause();
+                seek(positionSlider.getValue() * sliderScale);
+            }
+        });
+
+        playButton = new JButton("Play");
+        playButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (playing) {
+                    pause();
+                } else {
+                    play();
+                }
+            }
+        });
+
+        speedSlider = new JSlider(0, MAX_SPEED_STEP, 20);
+        speedSlider.setToolTipText("Playback speed");
+        JLabel speedLabel = new JLabel();
+        speedSlider.addChangeListener(e -> speedLabel.setText(String.format("%,.0f events/s", eventsPerSecond())));
+        speedLabel.setText(String.format("%,.0f events/s", eventsPerSecond()));
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
+        buttons.add(button("|<", () -> seek(0)));
+        buttons.add(button("<", () -> seek(position - 1)));
+        buttons.add(playButton);
+        buttons.add(button(">", () -> seek(position + 1)));
+        buttons.add(button(">|", () -> seek(events)));
+        buttons.add(new JLabel("Speed"));
+        buttons.add(speedSlider);
+        buttons.add(speedLabel);
+
+        JPanel controls = new JPanel(new BorderLayout());
+        controls.setBorder(BorderFactory.createEmptyBorder(0, 5, 5, 5));
+        controls.add(positionSlider, BorderLayout.NORTH);
+        controls.add(buttons, BorderLayout.SOUTH);
+        add(controls, BorderLayout.SOUTH);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                playTimer.stop();
+                try {
+                    trace.close();
+                } catch (IOException ignored) {
+                    // Nothing left to do with the trace
+                }
+            }
+        });
+
+        pack();
+        seek(0);
+    }
+
+    private JButton button(String text, Runnable action) {
+        JButton button = new JButton(text);
+        button.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pause();
+                action.run();
+            }
+        });
+        return button;
+    }
+
+    private double eventsPerSecond() {
+        return Math.pow(10, speedSlider.getValue() / 10.0);
+    }
+
+    private void play() {
+        if (position >= events) seek(0);
+        playing = true;
+        pending = 0;
+        lastFrame = System.nanoTime();
+        playButton.setText("Pause");
+        playTimer.start();
+    }
+
+    private void pause() {
+        playing = false;
+        playButton.setText("Play");
+        playTimer.stop();
+    }
+
+    private void advance() {
+        long now = System.nanoTime();
+        pending += eventsPerSecond() * (now - lastFrame) / 1e9;
+        lastFrame = now;
+        long step = (long) pending;
+        if (step == 0) return;
+        pending -= step;
+        seek(position + step);
+        if (position >= events) pause();
+    }
+
+    /** Shows the board after the first {@code target} events, highlighting the cell of the last one. */
+    private void seek(long target) {
+        position = Math.max(0, Math.min(target, events));
+        trace.boardAt(position, values);
+        for (int cell = 0; cell < values.length; cell++) {
+            boardView.setValue(cell, values[cell]);
+            boardView.resetStyle(cell);
+        }
+        String last = "";
+        if (position > 0) {
+            int event = trace.event(position - 1);
+            int cell = TraceFormat.cell(event);
+            boolean removal = TraceFormat.isRemoval(event);
+            boardView.setStyle(cell, removal ? BoardView.BACKTRACKED : BoardView.TRIED);
+            last = String.format(" - %s %c at row %d, column %d", removal ? "removed" : "placed",
+                    PuzzleFormat.symbol(TraceFormat.num(event)), cell / boardView.gridSize() + 1, cell % boardView.gridSize() + 1);
+        }
+        statusLabel.setText(String.format("Event %,d of %,d%s", position, events, last));
+
+        updatingSlider = true;
+        positionSlider.setValue((int) (position / sliderScale));
+        updatingSlider = false;
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: java -cp bin visualizer.TraceReplayFrame trace-file");
+            System.exit(2);
+        }
+        Path path = Paths.get(args[0]);
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    TraceReplayFrame frame = new TraceReplayFrame(new TraceReader(path), path.getFileName().toString());
+                    frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                    frame.setLocationRelativeTo(null);
+                    frame.setVisible(true);
+                } catch (IOException e) {
+                    System.err.println("Could not open trace: " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+        });
+    }
+}